@@ -0,0 +1,53 @@
+package org.stt;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.stt.STTItemWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic histories for the benchmarks: consecutive items of 5 to 120 minutes, drawn from a fixed
+ * set of activities with a fixed seed. The last item is ongoing.
+ */
+public class BenchmarkData {
+    public static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 8, 0, 0);
+    private static final String[] ACTIVITIES = {
+            "meeting", "pause", "JIRA-123 code review", "JIRA-124 implementation", "JIRA-125 bugfix",
+            "support customer a", "support customer b", "email", "lunch", "planning sprint 12"
+    };
+
+    private BenchmarkData() {
+    }
+
+    public static List<TimeTrackingItem> items(int count) {
+        Random random = new Random(42);
+        List<TimeTrackingItem> items = new ArrayList<>(count);
+        LocalDateTime time = START;
+        for (int i = 0; i < count; i++) {
+            String activity = ACTIVITIES[random.nextInt(ACTIVITIES.length)];
+            if (i == count - 1) {
+                items.add(new TimeTrackingItem(activity, time));
+            } else {
+                LocalDateTime end = time.plusMinutes(5 + random.nextInt(116));
+                items.add(new TimeTrackingItem(activity, time, end));
+                time = end;
+            }
+        }
+        return items;
+    }
+
+    public static File writeTempFile(int count) throws IOException {
+        File file = File.createTempFile("stt-benchmark", ".txt");
+        file.deleteOnExit();
+        try (STTItemWriter out = new STTItemWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            items(count).forEach(out::write);
+        }
+        return file;
+    }
+}
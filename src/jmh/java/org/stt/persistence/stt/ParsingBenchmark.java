@@ -0,0 +1,63 @@
+package org.stt.persistence.stt;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.stt.BenchmarkData;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a whole file with each reader, as done on each query cache rebuild. Parsing in parallel only pays off with
+ * several cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParsingBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int items;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = BenchmarkData.writeTempFile(items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void sttItemReader(Blackhole blackhole) throws IOException {
+        readAll(new STTItemReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)), blackhole);
+    }
+
+    @Benchmark
+    public void mappedSTTItemReader(Blackhole blackhole) {
+        readAll(new MappedSTTItemReader(file), blackhole);
+    }
+
+    @Benchmark
+    public void mappedSTTItemReaderParallel(Blackhole blackhole) {
+        readAll(new MappedSTTItemReader(file, 0), blackhole);
+    }
+
+    private void readAll(ItemReader reader, Blackhole blackhole) {
+        try (ItemReader in = reader) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                blackhole.consume(item.get());
+            }
+        }
+    }
+}
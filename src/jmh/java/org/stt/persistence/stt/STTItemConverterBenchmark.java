@@ -0,0 +1,64 @@
+package org.stt.persistence.stt;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.stt.BenchmarkData;
+import org.stt.model.TimeTrackingItem;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run with -Pjmh.profilers=gc to see the allocation per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class STTItemConverterBenchmark {
+    private static final int CONSECUTIVE_LINES = 100;
+
+    private final STTItemConverter converter = new STTItemConverter();
+    private TimeTrackingItem item;
+    private String line;
+    private String[] consecutiveLines;
+    private TimeTrackingItem[] consecutiveItems;
+
+    @Setup
+    public void setup() {
+        item = BenchmarkData.items(2).get(0);
+        line = converter.timeTrackingItemToLine(item);
+        consecutiveItems = BenchmarkData.items(CONSECUTIVE_LINES).toArray(new TimeTrackingItem[0]);
+        consecutiveLines = new String[CONSECUTIVE_LINES];
+        for (int i = 0; i < CONSECUTIVE_LINES; i++) {
+            consecutiveLines[i] = converter.timeTrackingItemToLine(consecutiveItems[i]);
+        }
+    }
+
+    @Benchmark
+    public TimeTrackingItem parse() {
+        return converter.lineToTimeTrackingItem(line);
+    }
+
+    @Benchmark
+    public String format() {
+        return converter.timeTrackingItemToLine(item);
+    }
+
+    /**
+     * Like reading a file, most lines share the date of the previous one.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CONSECUTIVE_LINES)
+    public void parseConsecutive(Blackhole blackhole) {
+        for (String consecutiveLine : consecutiveLines) {
+            blackhole.consume(converter.lineToTimeTrackingItem(consecutiveLine));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONSECUTIVE_LINES)
+    public void formatConsecutive(Blackhole blackhole) {
+        for (TimeTrackingItem consecutiveItem : consecutiveItems) {
+            blackhole.consume(converter.timeTrackingItemToLine(consecutiveItem));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.stt.persistence.stt;
+
+import org.openjdk.jmh.annotations.*;
+import org.stt.BenchmarkData;
+import org.stt.model.TimeTrackingItem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The file gets recreated for each iteration. Each benchmark leaves the file content unchanged, so all invocations
+ * of an iteration operate on the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class STTItemPersisterBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int items;
+
+    private File file;
+    private STTItemPersister persister;
+    private TimeTrackingItem last;
+    private TimeTrackingItem middle;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        file = BenchmarkData.writeTempFile(items);
+        List<TimeTrackingItem> data = BenchmarkData.items(items);
+        last = data.get(data.size() - 1);
+        middle = data.get(data.size() / 2);
+        persister = new STTItemPersister(file, () -> {
+            try {
+                return new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, () -> {
+            try {
+                return new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Re-inserting the ongoing item, which only touches the end of the file.
+     */
+    @Benchmark
+    public void persistAtEnd() {
+        persister.persist(last);
+    }
+
+    /**
+     * Re-inserting an item in the middle, which rewrites the file.
+     */
+    @Benchmark
+    public void persistInMiddle() {
+        persister.persist(middle);
+    }
+
+    @Benchmark
+    public void deleteAndRestoreInMiddle() {
+        persister.delete(middle);
+        persister.persist(middle);
+    }
+}
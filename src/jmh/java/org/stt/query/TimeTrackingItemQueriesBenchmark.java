@@ -0,0 +1,54 @@
+package org.stt.query;
+
+import org.openjdk.jmh.annotations.*;
+import org.stt.BenchmarkData;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeTrackingItemQueriesBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int items;
+
+    private List<TimeTrackingItem> data;
+    private TimeTrackingItemQueries queries;
+    private LocalDate day;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.items(items);
+        queries = new TimeTrackingItemQueries(() -> ItemLists.reader(data), Optional.empty());
+        day = data.get(data.size() / 2).getStart().toLocalDate();
+        queries.queryAllItems().count();
+    }
+
+    @Benchmark
+    public List<TimeTrackingItem> itemsOfDay() {
+        try (Stream<TimeTrackingItem> result = queries.queryItems(new Criteria().withPeriodAtDay(day))) {
+            return result.collect(toList());
+        }
+    }
+
+    @Benchmark
+    public List<TimeTrackingItem> itemsWithActivity() {
+        try (Stream<TimeTrackingItem> result = queries.queryItems(new Criteria().withActivityIs("meeting"))) {
+            return result.collect(toList());
+        }
+    }
+
+    @Benchmark
+    public long rebuildCache() {
+        queries.sourceChanged(null);
+        return queries.queryAllItems().count();
+    }
+}
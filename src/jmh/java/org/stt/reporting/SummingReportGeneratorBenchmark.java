@@ -0,0 +1,33 @@
+package org.stt.reporting;
+
+import org.openjdk.jmh.annotations.*;
+import org.stt.BenchmarkData;
+import org.stt.model.TimeTrackingItem;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SummingReportGeneratorBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int items;
+
+    private List<TimeTrackingItem> data;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.items(items);
+    }
+
+    @Benchmark
+    public SummingReportGenerator.Report createReport() {
+        return new SummingReportGenerator(data.stream()).createReport();
+    }
+
+    @Benchmark
+    public SummingReportGenerator.Report createReportParallel() {
+        return new SummingReportGenerator(data.parallelStream()).createReport();
+    }
+}
@@ -0,0 +1,36 @@
+package org.stt.text;
+
+import org.openjdk.jmh.annotations.*;
+import org.stt.BenchmarkData;
+import org.stt.config.CommonPrefixGrouperConfig;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.query.TimeTrackingItemQueries;
+import org.stt.text.ItemGrouper.Group;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommonPrefixGrouperBenchmark {
+    @Param({"1000", "100000"})
+    public int items;
+
+    private CommonPrefixGrouper grouper;
+
+    @Setup
+    public void setup() {
+        List<TimeTrackingItem> data = BenchmarkData.items(items);
+        grouper = new CommonPrefixGrouper(new TimeTrackingItemQueries(() -> ItemLists.reader(data), Optional.empty()),
+                new CommonPrefixGrouperConfig());
+        grouper.getGroupsOf("");
+    }
+
+    @Benchmark
+    public List<Group> getGroupsOf() {
+        return grouper.getGroupsOf("JIRA-123 code review of the new importer");
+    }
+}
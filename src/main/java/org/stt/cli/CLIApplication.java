@@ -6,6 +6,8 @@ import org.stt.command.CommandModule;
 import org.stt.config.ConfigModule;
 import org.stt.config.ConfigServiceFacade;
 import org.stt.persistence.BackupCreator;
+import org.stt.persistence.h2.H2Database;
+import org.stt.persistence.stt.STTMaintenance;
 import org.stt.persistence.stt.STTPersistenceModule;
 import org.stt.text.TextModule;
 
@@ -18,5 +20,11 @@ public interface CLIApplication {
 
     ConfigServiceFacade configService();
 
+    STTMaintenance maintenance();
+
+    H2Database database();
+
     Main main();
+
+    CLIDaemon daemon();
 }
@@ -0,0 +1,177 @@
+package org.stt.cli;
+
+import org.stt.config.CliConfig;
+import org.stt.persistence.BackupCreator;
+import org.stt.persistence.stt.STTStoreFiles;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.*;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Long running server for the CLI, which keeps configuration and query cache between invocations.
+ * <p>
+ * The server only listens on the loopback interface. Port and a random token are stored in
+ * {@code .stt/cli-daemon} in the home directory, only readable by the user. Clients
+ * ({@link #forward(List, String, OutputStream)}) send the token and the command line arguments and receive the output.
+ * </p>
+ * <p>
+ * The cache is dropped before a command if any of the {@link STTStoreFiles} of the configured format changed since
+ * the previous command.
+ * </p>
+ */
+public class CLIDaemon {
+    private static final Logger LOG = Logger.getLogger(CLIDaemon.class.getName());
+    private static final String STOP_COMMAND = "stop";
+    private static final int READ_TIMEOUT_MILLIS = 10000;
+
+    private final Main main;
+    private final BackupCreator backupCreator;
+    private final CliConfig cliConfig;
+    private final STTStoreFiles storeFiles;
+    private final File daemonFile;
+    private long[] lastFileState = new long[0];
+
+    @Inject
+    public CLIDaemon(Main main,
+                     BackupCreator backupCreator,
+                     CliConfig cliConfig,
+                     STTStoreFiles storeFiles,
+                     @Named("homePath") String homePath) {
+        this.main = requireNonNull(main);
+        this.backupCreator = requireNonNull(backupCreator);
+        this.cliConfig = requireNonNull(cliConfig);
+        this.storeFiles = requireNonNull(storeFiles);
+        this.daemonFile = daemonFile(requireNonNull(homePath));
+    }
+
+    /**
+     * Serves clients until a client sends "daemon stop".
+     */
+    public void serve() throws IOException {
+        String token = new BigInteger(130, new SecureRandom()).toString(32);
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            writeDaemonFile(serverSocket.getLocalPort(), token);
+            LOG.info(() -> "CLI daemon listening on port " + serverSocket.getLocalPort());
+            boolean running = true;
+            while (running) {
+                try (Socket socket = serverSocket.accept()) {
+                    socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                    running = handle(socket, token);
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Error while serving CLI client", e);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(daemonFile.toPath());
+            backupCreator.stop();
+        }
+    }
+
+    private boolean handle(Socket socket, String token) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        if (!token.equals(in.readUTF())) {
+            LOG.warning("Rejected CLI client with invalid token");
+            return true;
+        }
+        int argCount = in.readInt();
+        List<String> args = new ArrayList<>(argCount);
+        for (int i = 0; i < argCount; i++) {
+            args.add(in.readUTF());
+        }
+        PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false,
+                cliConfig.getSystemOutEncoding());
+        if (args.size() == 2 && args.get(0).equals("daemon") && args.get(1).equals(STOP_COMMAND)) {
+            out.println("daemon stopped");
+            out.flush();
+            return false;
+        }
+        if (!Arrays.equals(storeFiles.state(), lastFileState)) {
+            // Changed by the GUI or a CLI run without daemon
+            main.sourceChanged();
+        }
+        try {
+            main.prepareAndExecuteCommand(args, out);
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Error while executing " + args, e);
+            out.println(e.getMessage());
+        }
+        out.flush();
+        lastFileState = storeFiles.state();
+        backupCreator.start();
+        return true;
+    }
+
+    private void writeDaemonFile(int port, String token) throws IOException {
+        File parent = daemonFile.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Couldn't create " + parent.getAbsolutePath());
+        }
+        Files.deleteIfExists(daemonFile.toPath());
+        Files.createFile(daemonFile.toPath());
+        try {
+            Files.setPosixFilePermissions(daemonFile.toPath(),
+                    EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        } catch (UnsupportedOperationException e) {
+            LOG.fine("Cannot restrict permissions of daemon file on this platform");
+        }
+        Files.write(daemonFile.toPath(), (port + " " + token).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Forwards the command line to a running daemon.
+     *
+     * @return false if no daemon is running, in which case nothing was written to out
+     */
+    public static boolean forward(List<String> args, String homePath, OutputStream out) throws IOException {
+        File daemonFile = daemonFile(homePath);
+        if (!daemonFile.exists()) {
+            return false;
+        }
+        String[] portAndToken = new String(Files.readAllBytes(daemonFile.toPath()), StandardCharsets.UTF_8).split(" ");
+        if (portAndToken.length != 2) {
+            return false;
+        }
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(portAndToken[0]));
+        } catch (IOException | NumberFormatException e) {
+            LOG.log(Level.FINE, "No CLI daemon running", e);
+            return false;
+        }
+        try (Socket connection = socket) {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            request.writeUTF(portAndToken[1]);
+            request.writeInt(args.size());
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+            InputStream response = connection.getInputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = response.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            out.flush();
+        }
+        return true;
+    }
+
+    private static File daemonFile(String homePath) {
+        return new File(new File(homePath, ".stt"), "cli-daemon");
+    }
+}
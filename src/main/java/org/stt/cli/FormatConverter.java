@@ -4,6 +4,9 @@ import org.stt.csv.importer.CsvImporter;
 import org.stt.model.TimeTrackingItem;
 import org.stt.persistence.ItemReader;
 import org.stt.persistence.ItemWriter;
+import org.stt.persistence.blocks.BlockItemReader;
+import org.stt.persistence.blocks.BlockItemWriter;
+import org.stt.persistence.h2.H2Database;
 import org.stt.persistence.stt.STTItemReader;
 import org.stt.persistence.stt.STTItemWriter;
 import org.stt.ti.importer.TiImporter;
@@ -17,13 +20,17 @@ import java.util.Optional;
 /**
  * Converts different supported time tracking formats. Currently these are:
  * <p>
- * - CSV - STT internal asNewItemCommandText - modified ti asNewItemCommandText
+ * - CSV - STT internal asNewItemCommandText - modified ti asNewItemCommandText - compressed blocks - h2 database
+ * <p>
+ * Targets are either "stt", "blocks" or "h2". The h2 format needs the location of the database as source or
+ * target.
  */
 class FormatConverter {
 
     private File targetFile;
     private File sourceFile;
     private String sourceFormat;
+    private String targetFormat;
 
     FormatConverter(List<String> args) {
         Objects.requireNonNull(args);
@@ -31,12 +38,19 @@ class FormatConverter {
         sourceFile = null;
         sourceFormat = "stt";
         targetFile = null;
+        targetFormat = "stt";
         int sourceFormatIndex = args.indexOf("--sourceFormat");
         if (sourceFormatIndex != -1) {
             args.remove(sourceFormatIndex);
             sourceFormat = args.get(sourceFormatIndex);
             args.remove(sourceFormatIndex);
         }
+        int targetFormatIndex = args.indexOf("--targetFormat");
+        if (targetFormatIndex != -1) {
+            args.remove(targetFormatIndex);
+            targetFormat = args.get(targetFormatIndex);
+            args.remove(targetFormatIndex);
+        }
         int sourceIndex = args.indexOf("--source");
         if (sourceIndex != -1) {
             args.remove(sourceIndex);
@@ -51,21 +65,37 @@ class FormatConverter {
         }
     }
 
-    private ItemWriter getWriterFrom(File output) throws FileNotFoundException {
-        if (output == null) {
-            return new STTItemWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)); // NOSONAR not logging
+    private ItemWriter getWriterFrom(File output, String targetFormat) throws FileNotFoundException {
+        if ("h2".equals(targetFormat)) {
+            return H2Database.openWriter(requireFile(output, "--target"));
+        }
+        OutputStream out = output == null ? System.out : new FileOutputStream(output); // NOSONAR not logging
+        switch (targetFormat) {
+            case "stt":
+                return new STTItemWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            case "blocks":
+                return new BlockItemWriter(out);
+            default:
+                if (output != null) {
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                throw new InvalidFormatException("unknown output format \"" + targetFormat + "\"");
         }
-        return new STTItemWriter(
-                new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8));
     }
 
     private ItemReader getReaderFrom(File input, String sourceFormat) throws IOException {
-        Reader inputReader;
-        if (input == null) {
-            inputReader = new InputStreamReader(System.in, StandardCharsets.UTF_8);
-        } else {
-            inputReader = new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8);
+        if ("h2".equals(sourceFormat)) {
+            return H2Database.openReader(requireFile(input, "--source"));
         }
+        InputStream in = input == null ? System.in : new FileInputStream(input);
+        if ("blocks".equals(sourceFormat)) {
+            return new BlockItemReader(in);
+        }
+        Reader inputReader = new InputStreamReader(in, StandardCharsets.UTF_8);
 
         switch (sourceFormat) {
             case "stt":
@@ -76,14 +106,21 @@ class FormatConverter {
                 return new CsvImporter(inputReader, 1, 4, 8);
             default:
                 inputReader.close();
-                throw new InvalidSourceFormatException("unknown input asNewItemCommandText \"" + sourceFormat
+                throw new InvalidFormatException("unknown input asNewItemCommandText \"" + sourceFormat
                         + "\"");
         }
     }
 
+    private static File requireFile(File file, String option) {
+        if (file == null) {
+            throw new InvalidFormatException("h2 format requires " + option);
+        }
+        return file;
+    }
+
     void convert() {
         try (ItemReader from = getReaderFrom(sourceFile, sourceFormat);
-             ItemWriter to = getWriterFrom(targetFile)) {
+             ItemWriter to = getWriterFrom(targetFile, targetFormat)) {
 
             Optional<TimeTrackingItem> current;
             while ((current = from.read()).isPresent()) {
@@ -94,8 +131,8 @@ class FormatConverter {
         }
     }
 
-    private static class InvalidSourceFormatException extends RuntimeException {
-        InvalidSourceFormatException(String message) {
+    private static class InvalidFormatException extends RuntimeException {
+        InvalidFormatException(String message) {
             super(message);
         }
     }
@@ -4,10 +4,16 @@ import org.stt.command.Activities;
 import org.stt.command.Command;
 import org.stt.command.CommandFormatter;
 import org.stt.command.CommandHandler;
+import org.stt.config.ConfigModule;
 import org.stt.config.ConfigRoot;
+import org.stt.model.ItemsChangedExternally;
 import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.BackupCreator;
+import org.stt.persistence.stt.STTMaintenance;
 import org.stt.query.Criteria;
+import org.stt.query.DailyDurations;
 import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.DailyReportCache;
 
 import javax.inject.Inject;
 import java.io.ByteArrayInputStream;
@@ -29,13 +35,19 @@ public class Main {
     private final ReportPrinter reportPrinter;
     private final CommandFormatter commandFormatter;
     private final CommandHandler activities;
+    private final DailyReportCache reportCache;
+    private final DailyDurations dailyDurations;
 
     @Inject
     public Main(TimeTrackingItemQueries timeTrackingItemQueries,
                 ReportPrinter reportPrinter,
                 CommandFormatter commandFormatter,
-                Activities activities) {
+                Activities activities,
+                DailyReportCache reportCache,
+                DailyDurations dailyDurations) {
         this.timeTrackingItemQueries = timeTrackingItemQueries;
+        this.reportCache = reportCache;
+        this.dailyDurations = dailyDurations;
         this.reportPrinter = reportPrinter;
         this.commandFormatter = commandFormatter;
         this.activities = activities;
@@ -60,7 +72,16 @@ public class Main {
         Command parsedCommand = commandFormatter.parse(command);
         parsedCommand.accept(activities);
 
+        sourceChanged();
+    }
+
+    /**
+     * There is no event bus in the CLI, so the caches are cleared after each modification.
+     */
+    void sourceChanged() {
         timeTrackingItemQueries.sourceChanged(null);
+        reportCache.itemModified(new ItemsChangedExternally());
+        dailyDurations.sourceChanged(new ItemsChangedExternally());
     }
 
     /**
@@ -113,6 +134,14 @@ public class Main {
         //switch off logging (the quick & dirty way)
         LogManager.getLogManager().readConfiguration(new ByteArrayInputStream(".level = SEVERE".getBytes(StandardCharsets.UTF_8)));
 
+        List<String> argsList = new ArrayList<>(Arrays.asList(args));
+        boolean startDaemon = argsList.equals(Collections.singletonList("daemon"));
+        // convert reads and writes local files and streams, so it's never forwarded
+        if (!startDaemon && (argsList.isEmpty() || !argsList.get(0).startsWith("c"))
+                && CLIDaemon.forward(argsList, ConfigModule.provideHomePath(), new FileOutputStream(FileDescriptor.out))) {
+            return;
+        }
+
         CLIApplication cliApplication = DaggerCLIApplication.create();
         // accept the desired encoding for all System.out calls
         // this is necessary if one wants to output non ASCII
@@ -122,15 +151,24 @@ public class Main {
         //configuration.setSttFile(new PathSetting("-"));
         System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.out),
                 true, configuration.getCli().getSystemOutEncoding()));
+        STTMaintenance maintenance = cliApplication.maintenance();
+        maintenance.start();
 
-        Main main = cliApplication.main();
-        List<String> argsList = new ArrayList<>(Arrays.asList(args));
-        main.prepareAndExecuteCommand(argsList, System.out);
+        if (startDaemon) {
+            cliApplication.daemon().serve();
+        } else {
+            Main main = cliApplication.main();
+            main.prepareAndExecuteCommand(argsList, System.out);
+        }
 
+        maintenance.stop();
         //store config
         cliApplication.configService().stop();
-        // perform backup
-        cliApplication.backupCreator().start();
+        // perform backup, if one is due, and wait for it
+        BackupCreator backupCreator = cliApplication.backupCreator();
+        backupCreator.start();
+        backupCreator.stop();
+        cliApplication.database().stop();
     }
 
     void prepareAndExecuteCommand(List<String> args, PrintStream printTo) {
@@ -178,7 +216,8 @@ public class Main {
                 + "report [X days] [searchstring]\tto display a report\n"
                 + "fin\t\tto stop working\n"
                 + "search [searchstring]\tto get a list of all comments of items matching the given search string\n"
-                + "resume last\tstart the previous work item if not already started";
+                + "resume last\tstart the previous work item if not already started\n"
+                + "daemon\t\tkeep running and serve further invocations, until 'daemon stop'";
 
         printTo.println(usage);
     }
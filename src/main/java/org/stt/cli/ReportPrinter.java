@@ -10,10 +10,10 @@ import org.stt.model.ReportingItem;
 import org.stt.model.TimeTrackingItem;
 import org.stt.query.Criteria;
 import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.DailyReportCache;
 import org.stt.reporting.OvertimeReportGenerator;
 import org.stt.reporting.SummingReportGenerator;
 import org.stt.reporting.SummingReportGenerator.Report;
-import org.stt.reporting.WorkingtimeItemProvider;
 import org.stt.text.ItemCategorizer;
 import org.stt.text.ItemCategorizer.ItemCategory;
 import org.stt.time.DateTimes;
@@ -36,18 +36,21 @@ public class ReportPrinter {
 
     private final TimeTrackingItemQueries queries;
     private final CliConfig configuration;
-    private final WorkingtimeItemProvider workingtimeItemProvider;
     private final ItemCategorizer categorizer;
+    private final DailyReportCache reportCache;
+    private final OvertimeReportGenerator overtimeReportGenerator;
 
     @Inject
     public ReportPrinter(TimeTrackingItemQueries queries,
                          CliConfig configuration,
-                         WorkingtimeItemProvider workingtimeItemProvider,
-                         ItemCategorizer categorizer) {
+                         ItemCategorizer categorizer,
+                         DailyReportCache reportCache,
+                         OvertimeReportGenerator overtimeReportGenerator) {
         this.queries = queries;
         this.configuration = configuration;
-        this.workingtimeItemProvider = workingtimeItemProvider;
         this.categorizer = categorizer;
+        this.reportCache = reportCache;
+        this.overtimeReportGenerator = overtimeReportGenerator;
     }
 
     public void report(Collection<String> args, PrintStream printTo) {
@@ -105,7 +108,6 @@ public class ReportPrinter {
 
     private void printOvertime(PrintStream printTo, LocalDate reportStart,
                                LocalDate reportEnd) {
-        OvertimeReportGenerator overtimeReportGenerator = createOvertimeReportGenerator();
         Map<LocalDate, Duration> overtimeMap = overtimeReportGenerator
                 .getOvertime(reportStart, reportEnd);
         Duration overallOvertime = overtimeReportGenerator.getOverallOvertime();
@@ -149,60 +151,69 @@ public class ReportPrinter {
      */
     private void printSums(PrintStream printTo, String searchString,
                            LocalDate reportStart, LocalDate reportEnd, boolean truncateLongLines) {
-        Criteria criteria = new Criteria();
-        if (searchString != null) {
-            criteria.withActivityContains(searchString);
-        }
-        criteria.withStartBetween(Interval.between(reportStart, reportEnd));
+        Report report = createReport(searchString, reportStart, reportEnd);
 
-        try (Stream<TimeTrackingItem> itemsToConsider = queries.queryItems(criteria)) {
-            SummingReportGenerator reporter = new SummingReportGenerator(itemsToConsider);
-            Report report = reporter.createReport();
-
-            if (DateTimes.isToday(reportStart)) {
-                printTo.println("====== sums of today ======");
-                if (report.getStart() != null) {
-                    printTo.println("start of day: "
-                            + DateTimes.prettyPrintTime(report.getStart()));
-                }
-                if (report.getEnd() != null) {
-                    printTo.println("end of day:   "
-                            + DateTimes.prettyPrintTime(report.getEnd()));
-                }
-            } else {
-                printTo.println("====== sums from "
-                        + DateTimes.prettyPrintDate(reportStart) + " to "
-                        + DateTimes.prettyPrintDate(reportEnd));
+        if (DateTimes.isToday(reportStart)) {
+            printTo.println("====== sums of today ======");
+            if (report.getStart() != null) {
+                printTo.println("start of day: "
+                        + DateTimes.prettyPrintTime(report.getStart()));
             }
-            if (!report.getUncoveredDuration().equals(Duration.ZERO)) {
-                printTo.println("time not yet tracked: "
-                        + DateTimes.prettyPrintDuration(report
-                        .getUncoveredDuration()));
+            if (report.getEnd() != null) {
+                printTo.println("end of day:   "
+                        + DateTimes.prettyPrintTime(report.getEnd()));
             }
-            List<ReportingItem> reportingItems = report.getReportingItems();
-
-            Duration worktimeDuration = Duration.ZERO;
-            Duration breakTimeDuration = Duration.ZERO;
-            for (ReportingItem i : reportingItems) {
-                Duration duration = i.getDuration();
-                String comment = i.getComment();
-                String prefix = " ";
-                if (ItemCategory.BREAK.equals(categorizer.getCategory(comment))) {
-                    prefix = "*";
-                    breakTimeDuration = breakTimeDuration.plus(duration);
-                } else {
-                    worktimeDuration = worktimeDuration.plus(duration);
-                }
-                printTruncatedString(
-                        prefix + DateTimes.prettyPrintDuration(duration)
-                                + "   " + comment, printTo, truncateLongLines);
+        } else {
+            printTo.println("====== sums from "
+                    + DateTimes.prettyPrintDate(reportStart) + " to "
+                    + DateTimes.prettyPrintDate(reportEnd));
+        }
+        if (!report.getUncoveredDuration().equals(Duration.ZERO)) {
+            printTo.println("time not yet tracked: "
+                    + DateTimes.prettyPrintDuration(report
+                    .getUncoveredDuration()));
+        }
+        List<ReportingItem> reportingItems = report.getReportingItems();
+
+        Duration worktimeDuration = Duration.ZERO;
+        Duration breakTimeDuration = Duration.ZERO;
+        for (ReportingItem i : reportingItems) {
+            Duration duration = i.getDuration();
+            String comment = i.getComment();
+            String prefix = " ";
+            if (ItemCategory.BREAK.equals(categorizer.getCategory(comment))) {
+                prefix = "*";
+                breakTimeDuration = breakTimeDuration.plus(duration);
+            } else {
+                worktimeDuration = worktimeDuration.plus(duration);
             }
+            printTruncatedString(
+                    prefix + DateTimes.prettyPrintDuration(duration)
+                            + "   " + comment, printTo, truncateLongLines);
+        }
 
-            printTo.println("====== overall sum: ======");
-            printTo.println("work:  "
-                    + DateTimes.prettyPrintDuration(worktimeDuration));
-            printTo.println("break: "
-                    + DateTimes.prettyPrintDuration(breakTimeDuration));
+        printTo.println("====== overall sum: ======");
+        printTo.println("work:  "
+                + DateTimes.prettyPrintDuration(worktimeDuration));
+        printTo.println("break: "
+                + DateTimes.prettyPrintDuration(breakTimeDuration));
+    }
+
+    private Report createReport(String searchString, LocalDate reportStart, LocalDate reportEnd) {
+        if (searchString == null || searchString.isEmpty()) {
+            // Composed of the summaries of the months, weeks and days, which the daemon keeps between reports
+            return reportCache.reportBetween(reportStart, reportEnd.plusDays(1));
+        }
+        Criteria criteria = new Criteria();
+        criteria.withActivityContains(searchString);
+        criteria.withStartBetween(Interval.between(reportStart, reportEnd));
+
+        try (Stream<TimeTrackingItem> itemsToConsider = queries.queryItems(criteria)) {
+            // Reports spanning several days sum up their items in parallel
+            boolean severalDays = reportEnd.isAfter(reportStart.plusDays(1));
+            SummingReportGenerator reporter = new SummingReportGenerator(severalDays
+                    ? itemsToConsider.parallel() : itemsToConsider);
+            return reporter.createReport();
         }
     }
 
@@ -244,11 +255,6 @@ public class ReportPrinter {
         }
     }
 
-    private OvertimeReportGenerator createOvertimeReportGenerator() {
-        return new OvertimeReportGenerator(queries, categorizer,
-                workingtimeItemProvider);
-    }
-
     private void printTruncatedString(StringBuilder toPrint,
                                       PrintStream printTo, boolean doTruncate) {
         printTruncatedString(toPrint.toString(), printTo, doTruncate);
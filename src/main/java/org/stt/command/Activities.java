@@ -16,7 +16,10 @@ import org.stt.time.DateTimes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 
@@ -149,10 +152,20 @@ public class Activities implements CommandHandler {
     public void bulkChangeActivity(Collection<TimeTrackingItem> itemsToChange, String activity) {
         requireNonNull(itemsToChange);
         requireNonNull(activity);
-        Collection<ItemPersister.UpdatedItem> updatedItems = persister.updateActivitities(itemsToChange, activity);
-        updatedItems.stream()
-                .map(updatedItem -> new ItemReplaced(updatedItem.original, updatedItem.updated))
-                .forEach(publisher::publish);
+        List<ItemReplaced> replacements = itemsToChange.stream()
+                .filter(this::exists)
+                .map(item -> new ItemReplaced(item, item.withActivity(activity)))
+                .collect(Collectors.toList());
+        ItemPersister.Batch batch = new ItemPersister.Batch();
+        replacements.forEach(replaced -> batch.replace(replaced.beforeUpdate, replaced.afterUpdate));
+        persister.apply(batch);
+        replacements.forEach(publisher::publish);
+    }
+
+    private boolean exists(TimeTrackingItem item) {
+        try (Stream<TimeTrackingItem> items = queries.queryItems(new Criteria().withStartsAt(item.getStart()))) {
+            return items.anyMatch(item::equals);
+        }
     }
 
     private static class DoNotPublish implements PubSubSupport<Object> {
@@ -3,6 +3,7 @@ package org.stt.config;
 public class BackupConfig implements ConfigurationContainer {
     private int backupInterval = 7;
     private int backupRetentionCount = 0;
+    private boolean incremental = false;
     private PathSetting backupLocation = new PathSetting("$HOME$/.stt/backups");
     private PathSetting itemLogFile = new PathSetting("$HOME$/.stt/itemlog");
 
@@ -30,6 +31,17 @@ public class BackupConfig implements ConfigurationContainer {
         this.backupRetentionCount = backupRetentionCount;
     }
 
+    /**
+     * When true, backups are stored as a compressed base followed by compressed deltas instead of full copies.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     public PathSetting getItemLogFile() {
         return itemLogFile;
     }
@@ -52,9 +52,14 @@ public class ConfigModule {
         return configRoot.getJira();
     }
 
+    @Provides
+    static PersistenceConfig providePersistenceConfig(ConfigRoot configRoot) {
+        return configRoot.getPersistence();
+    }
+
     @Provides
     @Named("homePath")
-    static String provideHomePath() {
+    public static String provideHomePath() {
         return determineBaseDir().getAbsolutePath();
     }
 
@@ -9,6 +9,7 @@ public class ConfigRoot implements ConfigurationContainer {
     private PathSetting sttFile = new PathSetting("$HOME$/.stt/activities");
     private CliConfig cli = new CliConfig();
     private JiraConfig jira = new JiraConfig();
+    private PersistenceConfig persistence = new PersistenceConfig();
 
     public ActivitiesConfig getActivities() {
         return activities;
@@ -74,4 +75,12 @@ public class ConfigRoot implements ConfigurationContainer {
     public void setJira(JiraConfig jira) {
         this.jira = jira;
     }
+
+    public PersistenceConfig getPersistence() {
+        return persistence;
+    }
+
+    public void setPersistence(PersistenceConfig persistence) {
+        this.persistence = persistence;
+    }
 }
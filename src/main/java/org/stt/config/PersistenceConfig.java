@@ -0,0 +1,130 @@
+package org.stt.config;
+
+public class PersistenceConfig implements ConfigurationContainer {
+    private boolean journaled = false;
+    private int journalCompactionThreshold = 500;
+    private boolean parallelParsing = false;
+    private long parallelParsingMinFileSize = 16 * 1024 * 1024;
+    private boolean columnarCache = false;
+    private boolean sidecarIndex = false;
+    private boolean watchForChanges = true;
+    private String format = "stt";
+    private String partitioning = "none";
+
+    /**
+     * When true, modifications are appended to a journal next to the activities file instead of rewriting it.
+     */
+    public boolean isJournaled() {
+        return journaled;
+    }
+
+    public void setJournaled(boolean journaled) {
+        this.journaled = journaled;
+    }
+
+    /**
+     * Number of journal records after which the journal gets folded back into the activities file in the background.
+     */
+    public int getJournalCompactionThreshold() {
+        return journalCompactionThreshold;
+    }
+
+    public void setJournalCompactionThreshold(int journalCompactionThreshold) {
+        this.journalCompactionThreshold = journalCompactionThreshold;
+    }
+
+    /**
+     * When true, activities files of at least {@link #getParallelParsingMinFileSize()} bytes are parsed on all cores.
+     */
+    public boolean isParallelParsing() {
+        return parallelParsing;
+    }
+
+    public void setParallelParsing(boolean parallelParsing) {
+        this.parallelParsing = parallelParsing;
+    }
+
+    public long getParallelParsingMinFileSize() {
+        return parallelParsingMinFileSize;
+    }
+
+    public void setParallelParsingMinFileSize(long parallelParsingMinFileSize) {
+        this.parallelParsingMinFileSize = parallelParsingMinFileSize;
+    }
+
+    /**
+     * When true, the query cache keeps items as columns of primitives, trading some CPU for a lot less memory.
+     */
+    public boolean isColumnarCache() {
+        return columnarCache;
+    }
+
+    public void setColumnarCache(boolean columnarCache) {
+        this.columnarCache = columnarCache;
+    }
+
+    /**
+     * When true, a binary index next to the activities file is used instead of parsing the file, as long as it is
+     * up to date. Inserts near the end of the file update the index, after other modifications it gets rebuilt on
+     * the next start.
+     */
+    public boolean isSidecarIndex() {
+        return sidecarIndex;
+    }
+
+    public void setSidecarIndex(boolean sidecarIndex) {
+        this.sidecarIndex = sidecarIndex;
+    }
+
+    /**
+     * When true, the GUI watches the files holding the activities in the configured format for modifications by other
+     * processes, e.g. the CLI.
+     */
+    public boolean isWatchForChanges() {
+        return watchForChanges;
+    }
+
+    public void setWatchForChanges(boolean watchForChanges) {
+        this.watchForChanges = watchForChanges;
+    }
+
+    /**
+     * Format of the activities file, either "stt" for the line based text format, "blocks" for the compressed
+     * binary format or "h2" for an embedded database next to the configured file. Use the "convert" command to
+     * migrate an existing file. The journal and the sidecar index are only used with "stt". Backups of "h2" are
+     * written in the "stt" format.
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public boolean isBlockFormat() {
+        return "blocks".equals(format);
+    }
+
+    public boolean isH2Format() {
+        return "h2".equals(format);
+    }
+
+    /**
+     * Either "none", "month" or "year". Unless "none", the items of the "stt" format are split into one file per
+     * month or year of their start, so modifications only rewrite the affected files. On the next start after a
+     * change of this setting, the items get moved into the files of the new partitioning, or back into the activities
+     * file for "none". The journal and the sidecar index are not used with partitions.
+     */
+    public String getPartitioning() {
+        return partitioning;
+    }
+
+    public void setPartitioning(String partitioning) {
+        this.partitioning = partitioning;
+    }
+
+    public boolean isPartitioned() {
+        return !"none".equals(partitioning) && !isBlockFormat() && !isH2Format();
+    }
+}
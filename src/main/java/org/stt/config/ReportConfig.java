@@ -5,6 +5,7 @@ import java.time.Duration;
 public class ReportConfig implements ConfigurationContainer {
     private Duration roundDurationsTo = Duration.ofMinutes(5);
     private boolean groupItems = true;
+    private int cachedReportDays = 62;
 
     public boolean isGroupItems() {
         return groupItems;
@@ -21,4 +22,15 @@ public class ReportConfig implements ConfigurationContainer {
     public void setRoundDurationsTo(Duration roundDurationsTo) {
         this.roundDurationsTo = roundDurationsTo;
     }
+
+    /**
+     * How many summaries of days, and also of weeks and of months, are remembered for reports.
+     */
+    public int getCachedReportDays() {
+        return cachedReportDays;
+    }
+
+    public void setCachedReportDays(int cachedReportDays) {
+        this.cachedReportDays = cachedReportDays;
+    }
 }
@@ -13,6 +13,10 @@ import org.stt.fun.AchievementModule;
 import org.stt.gui.jfx.JFXModule;
 import org.stt.gui.jfx.MainWindowController;
 import org.stt.persistence.BackupCreator;
+import org.stt.persistence.h2.H2Database;
+import org.stt.persistence.stt.STTFileWatcher;
+import org.stt.persistence.stt.STTJournal;
+import org.stt.persistence.stt.STTMaintenance;
 import org.stt.persistence.stt.STTPersistenceModule;
 import org.stt.text.TextModule;
 import org.stt.time.TimeUtilModule;
@@ -31,6 +35,14 @@ public interface UIApplication {
 
     BackupCreator backupCreator();
 
+    STTJournal journal();
+
+    STTMaintenance maintenance();
+
+    H2Database database();
+
+    STTFileWatcher fileWatcher();
+
     ItemLogService itemLogService();
 
     MainWindowController mainWindow();
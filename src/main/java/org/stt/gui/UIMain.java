@@ -55,6 +55,10 @@ public class UIMain extends Application {
         startEventBus(uiApplication);
 
         startService(uiApplication.configService());
+        startService(uiApplication.database());
+        startService(uiApplication.maintenance());
+        startService(uiApplication.journal());
+        startService(uiApplication.fileWatcher());
         startService(uiApplication.backupCreator());
         startService(uiApplication.itemLogService());
 
@@ -4,6 +4,7 @@ import dagger.Module;
 import dagger.Provides;
 import dagger.multibindings.IntoSet;
 import dagger.multibindings.Multibinds;
+import javafx.application.Platform;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
@@ -20,6 +21,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -41,6 +43,12 @@ public abstract class JFXModule {
     @Multibinds
     abstract Set<ActivityTextDisplayProcessor> activityMappers();
 
+    @Provides
+    @Named("eventDispatcher")
+    static Executor provideEventDispatcher() {
+        return Platform::runLater;
+    }
+
     @Provides
     @Named("activityToText")
     static ActivityTextDisplayProcessor provideActivityToTextMapper(Set<ActivityTextDisplayProcessor> mappers) {
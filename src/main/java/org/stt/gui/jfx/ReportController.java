@@ -36,7 +36,7 @@ import org.stt.gui.jfx.binding.MappedListBinding;
 import org.stt.gui.jfx.binding.ReportBinding;
 import org.stt.gui.jfx.binding.STTBindings;
 import org.stt.model.ItemModified;
-import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.DailyReportCache;
 import org.stt.reporting.SummingReportGenerator.Report;
 import org.stt.text.ItemGrouper;
 import org.stt.time.DateTimes;
@@ -51,7 +51,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -60,7 +59,7 @@ import static java.util.Objects.requireNonNull;
 import static org.stt.time.DateTimes.FORMATTER_PERIOD_HHh_MMm_SSs;
 
 public class ReportController {
-    private final TimeTrackingItemQueries timeTrackingItemQueries;
+    private final DailyReportCache reportCache;
 
     private final DurationRounder rounder;
     private final ItemGrouper itemGrouper;
@@ -93,11 +92,10 @@ public class ReportController {
     private Font fontaweSome;
     private final MBassador<Object> eventBus;
     private PauseTransition notificationPause = new PauseTransition(javafx.util.Duration.seconds(2));
-    private Set<LocalDate> trackedDays;
 
     @Inject
     ReportController(ResourceBundle localization,
-                     TimeTrackingItemQueries searcher,
+                     DailyReportCache reportCache,
                      DurationRounder rounder,
                      ItemGrouper itemGrouper,
                      ReportConfig config,
@@ -105,7 +103,7 @@ public class ReportController {
                      MBassador<Object> eventBus) {
         this.localization = requireNonNull(localization);
         this.config = requireNonNull(config);
-        this.timeTrackingItemQueries = requireNonNull(searcher);
+        this.reportCache = requireNonNull(reportCache);
         this.rounder = requireNonNull(rounder);
         this.itemGrouper = requireNonNull(itemGrouper);
         this.fontaweSome = requireNonNull(fontaweSome);
@@ -188,20 +186,18 @@ public class ReportController {
 
     private void setupNavigation() {
         datePicker = new DatePicker(LocalDate.now());
-        trackedDays = timeTrackingItemQueries.queryAllTrackedDays().collect(Collectors.toSet());
         datePicker.setDayCellFactory(picker ->
                 new DateCell() {
                     @Override
                     public void updateItem(LocalDate item, boolean empty) {
                         super.updateItem(item, empty);
 
-                        if (trackedDays.contains(item) && !isSelected()) {
+                        if (item != null && reportCache.isTrackedDay(item) && !isSelected()) {
                             setStyle("-fx-background-color: #006699;");
                         }
                     }
                 }
         );
-        datePicker.valueProperty().addListener(observable -> trackedDays = timeTrackingItemQueries.queryAllTrackedDays().collect(Collectors.toSet()));
         Node popupContent = new DatePickerSkin(datePicker).getPopupContent();
         left.getChildren().add(0, popupContent);
     }
@@ -210,7 +206,7 @@ public class ReportController {
         ObservableValue<LocalDate> nextDay = Bindings.createObjectBinding(
                 () -> datePicker.getValue() != null ? datePicker
                         .getValue().plusDays(1) : null, datePicker.valueProperty());
-        return new ReportBinding(datePicker.valueProperty(), nextDay, timeTrackingItemQueries);
+        return new ReportBinding(datePicker.valueProperty(), nextDay, reportCache);
     }
 
     private ListBinding<ListItem> createReportingItemsListModel(
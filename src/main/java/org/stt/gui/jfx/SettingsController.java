@@ -31,6 +31,7 @@ public class SettingsController {
     private final ReportConfig reportConfig;
     private final WorktimeConfig worktimeConfig;
     private final JiraConfig jiraConfig;
+    private final PersistenceConfig persistenceConfig;
     private Pane pane;
 
     @Inject
@@ -41,7 +42,8 @@ public class SettingsController {
                               CommonPrefixGrouperConfig commonPrefixGrouperConfig,
                               ReportConfig reportConfig,
                               WorktimeConfig worktimeConfig,
-                              JiraConfig jiraConfig) {
+                              JiraConfig jiraConfig,
+                              PersistenceConfig persistenceConfig) {
         this.configRoot = configRoot;
         this.activitiesConfig = activitiesConfig;
         this.backupConfig = backupConfig;
@@ -50,6 +52,7 @@ public class SettingsController {
         this.reportConfig = reportConfig;
         this.worktimeConfig = worktimeConfig;
         this.jiraConfig = jiraConfig;
+        this.persistenceConfig = persistenceConfig;
     }
 
     private PropertyEditor<?> createPasswordSettingsEditor(PropertySheet.Item property) {
@@ -127,7 +130,7 @@ public class SettingsController {
             return defaultEditorFactory.call(item);
         });
         Stream.of(configRoot, activitiesConfig, backupConfig, cliConfig, commonPrefixGrouperConfig,
-                reportConfig, worktimeConfig, jiraConfig)
+                reportConfig, worktimeConfig, jiraConfig, persistenceConfig)
                 .forEach(o -> propertySheet.getItems().addAll(BeanPropertyUtils.getProperties(o,
                         propertyDescriptor -> {
                             Class<?> propertyType = propertyDescriptor.getPropertyType();
@@ -7,17 +7,12 @@ package org.stt.gui.jfx.binding;
 
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.value.ObservableValue;
-import org.stt.model.TimeTrackingItem;
-import org.stt.query.Criteria;
-import org.stt.query.TimeTrackingItemQueries;
-import org.stt.reporting.SummingReportGenerator;
+import org.stt.reporting.DailyReportCache;
 import org.stt.reporting.SummingReportGenerator.Report;
-import org.stt.time.Interval;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
-import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 
@@ -25,14 +20,14 @@ public class ReportBinding extends ObjectBinding<Report> {
 
     private final ObservableValue<LocalDate> reportStart;
     private final ObservableValue<LocalDate> reportEnd;
-    private final TimeTrackingItemQueries queries;
+    private final DailyReportCache reportCache;
 
     public ReportBinding(ObservableValue<LocalDate> reportStart,
                          ObservableValue<LocalDate> reportEnd,
-                         TimeTrackingItemQueries queries) {
+                         DailyReportCache reportCache) {
         this.reportStart = requireNonNull(reportStart);
         this.reportEnd = requireNonNull(reportEnd);
-        this.queries = requireNonNull(queries);
+        this.reportCache = requireNonNull(reportCache);
 
 		bind(reportStart, reportEnd);
 	}
@@ -50,10 +45,6 @@ public class ReportBinding extends ObjectBinding<Report> {
 	}
 
 	private Report createSummaryReportFor() {
-        Criteria criteria = new Criteria();
-        criteria.withStartBetween(Interval.between(reportStart.getValue().atStartOfDay(), reportEnd.getValue().atStartOfDay()));
-        try (Stream<TimeTrackingItem> items = queries.queryItems(criteria)) {
-            return new SummingReportGenerator(items).createReport();
-        }
+        return reportCache.reportBetween(reportStart.getValue(), reportEnd.getValue());
 	}
 }
@@ -0,0 +1,7 @@
+package org.stt.model;
+
+/**
+ * The activities were modified by another process in a way which can't be described by single item events.
+ */
+public class ItemsChangedExternally implements ItemModified {
+}
@@ -12,9 +12,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -22,8 +29,13 @@ import java.util.stream.Stream;
 import static java.util.Objects.requireNonNull;
 
 /**
- * creates backups of the .stt file in configurable intervals and locations.
+ * creates backups of the .stt file in configurable intervals and locations. The content is taken from a
+ * {@link BackupSource}, so it includes e.g. the partitions of the activities.
  * Optionally deletes old backup files if configured.
+ * <p>
+ * Backups run on a background daemon thread and are only queued when one is due. {@link #stop()} waits for a
+ * queued backup, since the thread doesn't keep the JVM alive.
+ * </p>
  */
 @Singleton
 public class BackupCreator implements Service {
@@ -33,30 +45,130 @@ public class BackupCreator implements Service {
 	private final BackupConfig backupConfig;
 	private final File sttFile;
 	private String homePath;
+	private final BackupSource source;
+	private final Executor executor;
+	private volatile Future<?> pendingBackup;
 
 	@Inject
 	public BackupCreator(BackupConfig backupConfig,
 						 @STTFile File sttFile,
-						 @Named("homePath") String homePath) {
+						 @Named("homePath") String homePath,
+						 BackupSource source) {
+		this(backupConfig, sttFile, homePath, source, new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), BackupCreator::newBackupThread));
+	}
+
+	private static Thread newBackupThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, "STT backup");
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Backs up the content of the given file.
+	 *
+	 * @param executor runs the backups
+	 */
+	public BackupCreator(BackupConfig backupConfig,
+						 File sttFile,
+						 String homePath,
+						 Executor executor) {
+		this(backupConfig, sttFile, homePath, () -> Files.readAllBytes(sttFile.toPath()), executor);
+	}
+
+	/**
+	 * @param executor runs the backups
+	 */
+	public BackupCreator(BackupConfig backupConfig,
+						 File sttFile,
+						 String homePath,
+						 BackupSource source,
+						 Executor executor) {
 		this.backupConfig = requireNonNull(backupConfig);
 		this.sttFile = requireNonNull(sttFile);
 		this.homePath = requireNonNull(homePath);
+		this.source = requireNonNull(source);
+		this.executor = requireNonNull(executor);
 	}
 
+	/**
+	 * Waits for a queued backup to finish.
+	 */
 	@Override
 	public void stop() {
-        // No default behavior
-    }
+		Future<?> backup = pendingBackup;
+		if (backup == null) {
+			return;
+		}
+		try {
+			backup.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			LOG.log(Level.WARNING, "Backup failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Queues a backup, if one is due.
+	 */
+	@Override
+	public void start() {
+		Future<?> backup = pendingBackup;
+		if (backup != null && !backup.isDone()) {
+			return;
+		}
+		try {
+			if (!isBackupDue()) {
+				return;
+			}
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Backup failed", e);
+			return;
+		}
+		FutureTask<Void> task = new FutureTask<>(() -> {
+			try {
+				backup();
+			} catch (IOException | RuntimeException e) {
+				LOG.log(Level.WARNING, "Backup failed", e);
+			}
+		}, null);
+		pendingBackup = task;
+		executor.execute(task);
+	}
+
+	/**
+	 * @return if a new backup needs to be created or old backups need to be deleted
+	 */
+	boolean isBackupDue() throws IOException {
+		int backupInterval = backupConfig.getBackupInterval();
+		if (backupInterval < 1) {
+			return false;
+		}
+		File backupLocation = backupConfig.getBackupLocation().file(homePath);
+		if (!backupLocation.exists()) {
+			return true;
+		}
+		int retentionCount = backupConfig.getBackupRetentionCount();
+		if (backupConfig.isIncremental()) {
+			List<LocalDate> restorePoints = new IncrementalBackup(backupLocation, sttFile.getName())
+					.getRestorePoints();
+			return restorePointNeeded(restorePoints, backupInterval)
+					|| retentionCount > 0 && restorePoints.size() > retentionCount;
+		}
+		Collection<File> backedUpFiles = listBackupFiles(backupLocation);
+		return backupNeeded(backedUpFiles, backupInterval, sttFile, backupLocation)
+				|| retentionCount > 0 && backedUpFiles.size() > retentionCount;
+	}
 
 	/**
 	 * Perform the backup:
 	 *
 	 * <li>check if backup is needed
 	 *
-	 * <li>if so, copy the current .stt file to the backup location
+	 * <li>if so, write the content of the {@link BackupSource} to the backup location
 	 */
-	@Override
-	public void start() throws IOException {
+	public synchronized void backup() throws IOException {
 		int backupInterval = backupConfig.getBackupInterval();
 
 		if (backupInterval < 1) {
@@ -78,26 +190,45 @@ public class BackupCreator implements Service {
                     + backupLocation.getAbsolutePath());
         }
 
-		String sttFileName = sttFile.getName();
+		if (backupConfig.isIncremental()) {
+			incrementalBackup(new IncrementalBackup(backupLocation, sttFile.getName()), backupInterval);
+			return;
+		}
 
-        Collection<File> backedUpFiles;
-        try (Stream<File> backupedFileStream = Files.list(backupLocation.toPath())
-                .filter(path -> path.getFileName().toString().matches(sttFileName
-                        + "-[0-9]{4}-[0-9]{2}-[0-9]{2}"))
-                .map(Path::toFile)) {
-            backedUpFiles = backupedFileStream.collect(Collectors.toList());
-        }
+		Collection<File> backedUpFiles = listBackupFiles(backupLocation);
 
 		if (backupNeeded(backedUpFiles, backupInterval, sttFile, backupLocation)) {
 
             String backupFileName = getBackupFileName(sttFile, LocalDate.now());
             File newBackupFile = new File(backupLocation, backupFileName);
-            Files.copy(sttFile.toPath(), newBackupFile.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+            Files.write(newBackupFile.toPath(), source.content());
         }
 
 		deleteOldBackupFiles(backedUpFiles);
 	}
 
+	private void incrementalBackup(IncrementalBackup incrementalBackup, int backupInterval) throws IOException {
+		if (restorePointNeeded(incrementalBackup.getRestorePoints(), backupInterval)) {
+			incrementalBackup.backup(source.content(), LocalDate.now());
+		}
+		incrementalBackup.deleteAllButNewest(backupConfig.getBackupRetentionCount());
+	}
+
+	private boolean restorePointNeeded(List<LocalDate> restorePoints, int backupInterval) {
+		return restorePoints.isEmpty() || restorePoints.get(restorePoints.size() - 1)
+				.isBefore(LocalDate.now().minusDays(backupInterval - 1L));
+	}
+
+	private Collection<File> listBackupFiles(File backupLocation) throws IOException {
+		String sttFileName = sttFile.getName();
+		try (Stream<File> backupedFileStream = Files.list(backupLocation.toPath())
+				.filter(path -> path.getFileName().toString().matches(sttFileName
+						+ "-[0-9]{4}-[0-9]{2}-[0-9]{2}"))
+				.map(Path::toFile)) {
+			return backupedFileStream.collect(Collectors.toList());
+		}
+	}
+
 	/**
 	 * Deletes the oldest files (by filename) of the given Collection but keeps
 	 * the newest ones (configured by retentionCount)
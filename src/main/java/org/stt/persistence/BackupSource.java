@@ -0,0 +1,10 @@
+package org.stt.persistence;
+
+import java.io.IOException;
+
+/**
+ * The current content of the activities to back up, as a restorable activities file.
+ */
+public interface BackupSource {
+    byte[] content() throws IOException;
+}
@@ -0,0 +1,181 @@
+package org.stt.persistence;
+
+import org.stt.model.TimeTrackingItem;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * A list of items stored as columns of primitives: starts and ends in epoch seconds and activities as ids into a
+ * dictionary. Needs about 20 bytes per item instead of well over 100 for the objects of a {@link TimeTrackingItem}.
+ * Items get created on each access.
+ * <p>
+ * Sub second precision is kept in additional columns, which are only allocated once such an item is added.
+ * </p>
+ */
+public class ColumnarItemList extends AbstractList<TimeTrackingItem> implements RandomAccess {
+    private static final long NO_END = Long.MIN_VALUE;
+
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private int[] activityIds = new int[16];
+    private int[] startNanos;
+    private int[] endNanos;
+    private int size;
+
+    private final List<String> activities;
+    private final Map<String, Integer> idOfActivity;
+
+    public ColumnarItemList() {
+        activities = new ArrayList<>();
+        idOfActivity = new HashMap<>();
+    }
+
+    /**
+     * Copies the columns and the dictionary, without creating items.
+     */
+    public ColumnarItemList(ColumnarItemList other) {
+        starts = other.starts.clone();
+        ends = Arrays.copyOf(other.ends, starts.length);
+        activityIds = Arrays.copyOf(other.activityIds, starts.length);
+        if (other.startNanos != null) {
+            startNanos = Arrays.copyOf(other.startNanos, starts.length);
+            endNanos = Arrays.copyOf(other.endNanos, starts.length);
+        }
+        size = other.size;
+        activities = new ArrayList<>(other.activities);
+        idOfActivity = new HashMap<>(other.idOfActivity);
+    }
+
+    @Override
+    public TimeTrackingItem get(int index) {
+        checkIndex(index, size);
+        LocalDateTime start = toDateTime(starts[index], startNanos == null ? 0 : startNanos[index]);
+        String activity = activities.get(activityIds[index]);
+        if (ends[index] == NO_END) {
+            return new TimeTrackingItem(activity, start);
+        }
+        return new TimeTrackingItem(activity, start, toDateTime(ends[index], endNanos == null ? 0 : endNanos[index]));
+    }
+
+    @Override
+    public TimeTrackingItem set(int index, TimeTrackingItem item) {
+        TimeTrackingItem previous = get(index);
+        store(index, item);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, TimeTrackingItem item) {
+        checkIndex(index, size + 1);
+        if (size == starts.length) {
+            grow();
+        }
+        shift(index, index + 1, size - index);
+        size++;
+        store(index, item);
+        modCount++;
+    }
+
+    @Override
+    public TimeTrackingItem remove(int index) {
+        TimeTrackingItem removed = get(index);
+        removeRange(index, index + 1);
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        shift(toIndex, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Same as {@link ItemLists#firstIndexStartingAtOrAfter(List, LocalDateTime)}, without creating items.
+     */
+    int firstIndexStartingAtOrAfter(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        int nanos = time.getNano();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int startNano = startNanos == null ? 0 : startNanos[mid];
+            if (starts[mid] < seconds || starts[mid] == seconds && startNano < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void store(int index, TimeTrackingItem item) {
+        LocalDateTime start = item.getStart();
+        starts[index] = start.toEpochSecond(ZoneOffset.UTC);
+        ends[index] = item.getEnd().map(end -> end.toEpochSecond(ZoneOffset.UTC)).orElse(NO_END);
+        activityIds[index] = idOf(item.getActivity());
+        int endNano = item.getEnd().map(LocalDateTime::getNano).orElse(0);
+        if (startNanos == null && (start.getNano() != 0 || endNano != 0)) {
+            startNanos = new int[starts.length];
+            endNanos = new int[starts.length];
+        }
+        if (startNanos != null) {
+            startNanos[index] = start.getNano();
+            endNanos[index] = endNano;
+        }
+    }
+
+    private int idOf(String activity) {
+        Integer id = idOfActivity.get(activity);
+        if (id == null) {
+            id = activities.size();
+            activities.add(activity);
+            idOfActivity.put(activity, id);
+        }
+        return id;
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(starts, from, starts, to, length);
+        System.arraycopy(ends, from, ends, to, length);
+        System.arraycopy(activityIds, from, activityIds, to, length);
+        if (startNanos != null) {
+            System.arraycopy(startNanos, from, startNanos, to, length);
+            System.arraycopy(endNanos, from, endNanos, to, length);
+        }
+    }
+
+    private void grow() {
+        int capacity = starts.length * 2;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        activityIds = Arrays.copyOf(activityIds, capacity);
+        if (startNanos != null) {
+            startNanos = Arrays.copyOf(startNanos, capacity);
+            endNanos = Arrays.copyOf(endNanos, capacity);
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond, int nanos) {
+        return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+}
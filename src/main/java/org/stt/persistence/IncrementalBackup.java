@@ -0,0 +1,240 @@
+package org.stt.persistence;
+
+import org.stt.time.DateTimes;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Backups of the activities file as a compressed base snapshot followed by compressed deltas, one restore point
+ * per day.
+ * <p>
+ * A delta starts with the line "keep n", n being the number of lines of the previous restore point which are still
+ * present at the beginning of the file. The rest of the delta are the lines following them. Since the activities file
+ * mostly changes at its end, deltas are usually small. Once the deltas of a chain got larger than its base, the next
+ * restore point starts a new chain with a base.
+ * </p>
+ */
+public class IncrementalBackup {
+    private static final Logger LOG = Logger.getLogger(IncrementalBackup.class.getName());
+    private static final String BASE_SUFFIX = ".base.gz";
+    private static final String DELTA_SUFFIX = ".delta.gz";
+    private static final String KEEP = "keep ";
+
+    private final File backupLocation;
+    private final String sttFileName;
+    private final Pattern fileNamePattern;
+
+    public IncrementalBackup(File backupLocation, String sttFileName) {
+        this.backupLocation = Objects.requireNonNull(backupLocation);
+        this.sttFileName = Objects.requireNonNull(sttFileName);
+        this.fileNamePattern = Pattern.compile(Pattern.quote(sttFileName)
+                + "-([0-9]{4}-[0-9]{2}-[0-9]{2})(" + Pattern.quote(BASE_SUFFIX) + "|" + Pattern.quote(DELTA_SUFFIX) + ")");
+    }
+
+    /**
+     * @return the days of all restore points, oldest first
+     */
+    public List<LocalDate> getRestorePoints() throws IOException {
+        return restorePoints().stream().map(point -> point.day).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the content of the activities file as it was backed up on the given day, or on the last day before
+     * it with a restore point
+     */
+    public byte[] restore(LocalDate day) throws IOException {
+        List<RestorePoint> points = restorePoints();
+        int last = -1;
+        for (int i = 0; i < points.size() && !points.get(i).day.isAfter(day); i++) {
+            last = i;
+        }
+        if (last < 0) {
+            throw new FileNotFoundException("No backup on or before " + day);
+        }
+        return join(linesAt(points, last));
+    }
+
+    /**
+     * Adds a restore point for the given day with the current content of the activities file.
+     */
+    void backup(File sttFile, LocalDate day) throws IOException {
+        backup(Files.readAllBytes(sttFile.toPath()), day);
+    }
+
+    /**
+     * Adds a restore point for the given day with the given content of the activities file.
+     */
+    void backup(byte[] content, LocalDate day) throws IOException {
+        List<String> lines = split(content);
+        List<RestorePoint> points = restorePoints();
+        if (points.isEmpty() || deltasOutgrewBase(points)) {
+            writeBase(day, lines);
+            return;
+        }
+        List<String> previous = linesAt(points, points.size() - 1);
+        int kept = 0;
+        while (kept < previous.size() && kept < lines.size() && previous.get(kept).equals(lines.get(kept))) {
+            kept++;
+        }
+        List<String> delta = new ArrayList<>();
+        delta.add(KEEP + kept + "\n");
+        delta.addAll(lines.subList(kept, lines.size()));
+        write(new File(backupLocation, fileName(day, DELTA_SUFFIX)), delta);
+    }
+
+    /**
+     * Deletes all but the given number of newest restore points. If the oldest remaining one is a delta, it gets
+     * turned into a base.
+     */
+    void deleteAllButNewest(int retentionCount) throws IOException {
+        List<RestorePoint> points = restorePoints();
+        if (retentionCount < 1 || points.size() <= retentionCount) {
+            return;
+        }
+        int oldestRetained = points.size() - retentionCount;
+        RestorePoint newBase = points.get(oldestRetained);
+        if (!newBase.base) {
+            writeBase(newBase.day, linesAt(points, oldestRetained));
+            Files.delete(newBase.file.toPath());
+        }
+        for (RestorePoint point : points.subList(0, oldestRetained)) {
+            LOG.info(() -> "deleting old backup file " + point.file.getAbsolutePath()
+                    + " because of configured retention count");
+            Files.delete(point.file.toPath());
+        }
+    }
+
+    private boolean deltasOutgrewBase(List<RestorePoint> points) {
+        long deltaSize = 0;
+        for (int i = points.size() - 1; i >= 0; i--) {
+            RestorePoint point = points.get(i);
+            if (point.base) {
+                return deltaSize > point.file.length();
+            }
+            deltaSize += point.file.length();
+        }
+        return true;
+    }
+
+    private List<String> linesAt(List<RestorePoint> points, int index) throws IOException {
+        int base = index;
+        while (!points.get(base).base) {
+            base--;
+            if (base < 0) {
+                throw new IOException("Missing base backup before " + points.get(index).file.getAbsolutePath());
+            }
+        }
+        List<String> lines = read(points.get(base).file);
+        for (int i = base + 1; i <= index; i++) {
+            List<String> delta = read(points.get(i).file);
+            if (delta.isEmpty() || !delta.get(0).startsWith(KEEP)) {
+                throw new IOException("Invalid delta " + points.get(i).file.getAbsolutePath());
+            }
+            int kept = Integer.parseInt(delta.get(0).substring(KEEP.length()).trim());
+            lines = new ArrayList<>(lines.subList(0, kept));
+            lines.addAll(delta.subList(1, delta.size()));
+        }
+        return lines;
+    }
+
+    private List<RestorePoint> restorePoints() throws IOException {
+        if (!backupLocation.exists()) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(backupLocation.toPath())) {
+            return files.map(this::restorePointOf)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing((RestorePoint point) -> point.day)
+                            .thenComparing(point -> !point.base))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private RestorePoint restorePointOf(Path path) {
+        Matcher matcher = fileNamePattern.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new RestorePoint(LocalDate.parse(matcher.group(1)), BASE_SUFFIX.equals(matcher.group(2)), path.toFile());
+    }
+
+    private void writeBase(LocalDate day, List<String> lines) throws IOException {
+        write(new File(backupLocation, fileName(day, BASE_SUFFIX)), lines);
+    }
+
+    private String fileName(LocalDate day, String suffix) {
+        return sttFileName + "-" + DateTimes.prettyPrintDate(day) + suffix;
+    }
+
+    private static void write(File file, List<String> lines) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(tempFile))) {
+            out.write(join(lines));
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static List<String> read(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                content.write(buffer, 0, read);
+            }
+            return split(content.toByteArray());
+        }
+    }
+
+    /**
+     * Splits into lines, keeping the line separators, so joining them restores the exact content. Bytes are mapped
+     * one to one to chars, so binary activities files are restored exactly, too.
+     */
+    private static List<String> split(byte[] content) {
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(lineStart, i + 1));
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < text.length()) {
+            lines.add(text.substring(lineStart));
+        }
+        return lines;
+    }
+
+    private static byte[] join(List<String> lines) {
+        return String.join("", lines).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static class RestorePoint {
+        private final LocalDate day;
+        private final boolean base;
+        private final File file;
+
+        RestorePoint(LocalDate day, boolean base, File file) {
+            this.day = day;
+            this.base = base;
+            this.file = file;
+        }
+    }
+}
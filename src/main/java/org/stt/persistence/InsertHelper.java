@@ -1,27 +1,25 @@
-package org.stt.persistence.stt;
+package org.stt.persistence;
 
 import org.stt.model.TimeTrackingItem;
-import org.stt.persistence.ItemReader;
-import org.stt.persistence.ItemWriter;
 
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 
-class InsertHelper {
+public class InsertHelper {
     private final ItemReader reader;
     private final ItemWriter writer;
     private final TimeTrackingItem itemToInsert;
     private Optional<TimeTrackingItem> lastReadItem;
 
-    InsertHelper(ItemReader reader, ItemWriter writer,
+    public InsertHelper(ItemReader reader, ItemWriter writer,
                  TimeTrackingItem itemToInsert) {
         this.itemToInsert = Objects.requireNonNull(itemToInsert);
         this.writer = Objects.requireNonNull(writer);
         this.reader = Objects.requireNonNull(reader);
     }
 
-    void performInsert() {
+    public void performInsert() {
         copyAllItemsEndingAtOrBeforeItemToInsert();
         lastReadItem.ifPresent(this::adjustEndOfLastItemReadAndWrite);
         writer.write(itemToInsert);
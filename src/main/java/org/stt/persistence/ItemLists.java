@@ -0,0 +1,135 @@
+package org.stt.persistence;
+
+import org.stt.model.TimeTrackingItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Applies modifications to in-memory lists of items sorted by start, with the same semantics as
+ * {@link ItemPersister}, independent of any storage format.
+ */
+public class ItemLists {
+    private ItemLists() {
+    }
+
+    /**
+     * Inserts the item, adjusting or removing the items it overlaps. See {@link ItemPersister#persist(TimeTrackingItem)}.
+     */
+    public static void insert(List<TimeTrackingItem> items, TimeTrackingItem item) {
+        int unaffectedItems = countItemsEndingAtOrBefore(items, item.getStart());
+        List<TimeTrackingItem> tail = items.subList(unaffectedItems, items.size());
+        List<TimeTrackingItem> newTail = new ArrayList<>();
+        new InsertHelper(reader(new ArrayList<>(tail)), writer(newTail), item).performInsert();
+        tail.clear();
+        items.addAll(newTail);
+    }
+
+    /**
+     * Removes the item, if present.
+     */
+    public static void delete(List<TimeTrackingItem> items, TimeTrackingItem item) {
+        int index = indexOf(items, item);
+        if (index >= 0) {
+            items.remove(index);
+        }
+    }
+
+    /**
+     * @return the index of the given item or -1 if not found
+     */
+    public static int indexOf(List<TimeTrackingItem> items, TimeTrackingItem item) {
+        for (int i = firstIndexStartingAtOrAfter(items, item.getStart()); i < items.size()
+                && !items.get(i).getStart().isAfter(item.getStart()); i++) {
+            if (items.get(i).equals(item)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the first item starting at or after the given time, or the size of the list if there
+     * is none
+     */
+    public static int firstIndexStartingAtOrAfter(List<TimeTrackingItem> items, LocalDateTime time) {
+        if (items instanceof ColumnarItemList) {
+            return ((ColumnarItemList) items).firstIndexStartingAtOrAfter(time);
+        }
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).getStart().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Items are sorted by start and don't overlap, so the ones ending at or before the given time form a prefix.
+     */
+    private static int countItemsEndingAtOrBefore(List<TimeTrackingItem> items, LocalDateTime time) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).endsAtOrBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return true if the items are ordered by start
+     */
+    public static boolean isSortedByStart(List<TimeTrackingItem> items) {
+        for (int i = 1; i < items.size(); i++) {
+            if (items.get(i).getStart().isBefore(items.get(i - 1).getStart())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a reader returning the given items in order
+     */
+    public static ItemReader reader(List<TimeTrackingItem> items) {
+        Iterator<TimeTrackingItem> iterator = items.iterator();
+        return new ItemReader() {
+            @Override
+            public Optional<TimeTrackingItem> read() {
+                return iterator.hasNext() ? Optional.of(iterator.next()) : Optional.empty();
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close
+            }
+        };
+    }
+
+    private static ItemWriter writer(List<TimeTrackingItem> items) {
+        return new ItemWriter() {
+            @Override
+            public void write(TimeTrackingItem item) {
+                items.add(item);
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close
+            }
+        };
+    }
+}
@@ -2,7 +2,9 @@ package org.stt.persistence;
 
 import org.stt.model.TimeTrackingItem;
 
-import java.util.Collection;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
 
 public interface ItemPersister {
 
@@ -38,7 +40,26 @@ public interface ItemPersister {
      */
     void delete(TimeTrackingItem item);
 
-    Collection<UpdatedItem> updateActivitities(Collection<TimeTrackingItem> itemsToUpdate, String newActivity);
+    /**
+     * Applies all changes of the batch in order. Implementations perform them in one pass, instead of one pass per
+     * change.
+     */
+    void apply(Batch batch);
+
+    /**
+     * Replaces the activity of all given items, which have to be persisted already, by applying one {@link Batch}.
+     */
+    default Collection<UpdatedItem> updateActivitities(Collection<TimeTrackingItem> itemsToUpdate, String newActivity) {
+        Batch batch = new Batch();
+        List<UpdatedItem> updatedItems = new ArrayList<>();
+        for (TimeTrackingItem item : itemsToUpdate) {
+            TimeTrackingItem updatedItem = item.withActivity(newActivity);
+            batch.replace(item, updatedItem);
+            updatedItems.add(new UpdatedItem(item, updatedItem));
+        }
+        apply(batch);
+        return updatedItems;
+    }
 
     class UpdatedItem {
         public final TimeTrackingItem original;
@@ -49,4 +70,93 @@ public interface ItemPersister {
             this.updated = updated;
         }
     }
+
+    /**
+     * A sequence of inserts, deletes and replaces with the same semantics as {@link #persist(TimeTrackingItem)},
+     * {@link #delete(TimeTrackingItem)} and {@link #replace(TimeTrackingItem, TimeTrackingItem)}.
+     */
+    class Batch {
+        private final List<Change> changes = new ArrayList<>();
+
+        public Batch insert(TimeTrackingItem item) {
+            changes.add(new Change(null, requireNonNull(item)));
+            return this;
+        }
+
+        public Batch delete(TimeTrackingItem item) {
+            changes.add(new Change(requireNonNull(item), null));
+            return this;
+        }
+
+        public Batch replace(TimeTrackingItem item, TimeTrackingItem with) {
+            changes.add(new Change(requireNonNull(item), requireNonNull(with)));
+            return this;
+        }
+
+        public List<Change> getChanges() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return changes.equals(((Batch) o).changes);
+        }
+
+        @Override
+        public int hashCode() {
+            return changes.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Batch" + changes;
+        }
+    }
+
+    /**
+     * A single change of a {@link Batch}: an insert if there is no item to delete, a delete if there is no item
+     * to insert, a replace otherwise.
+     */
+    class Change {
+        public final TimeTrackingItem itemToDelete;
+        public final TimeTrackingItem itemToInsert;
+
+        Change(TimeTrackingItem itemToDelete, TimeTrackingItem itemToInsert) {
+            this.itemToDelete = itemToDelete;
+            this.itemToInsert = itemToInsert;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Change change = (Change) o;
+            return Objects.equals(itemToDelete, change.itemToDelete)
+                    && Objects.equals(itemToInsert, change.itemToInsert);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(itemToDelete, itemToInsert);
+        }
+
+        @Override
+        public String toString() {
+            return "Change{" + itemToDelete + " -> " + itemToInsert + '}';
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package org.stt.persistence.blocks;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemPersister;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.stt.AtomicFileReplacer;
+import org.stt.persistence.stt.STTFile;
+import org.stt.persistence.stt.STTFileLock;
+
+import javax.inject.Inject;
+import java.io.*;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Persists items in the format of {@link BlockItemWriter}.
+ * <p>
+ * Items are sorted by start and don't overlap, so a modification only affects the items starting at or after the
+ * earliest changed start and the item right before it. The blocks before the one holding that item are copied without
+ * decoding them, only the following blocks get decoded and encoded again. The whole file is still replaced by the
+ * {@link AtomicFileReplacer}, so a crash never loses the tail.
+ * </p>
+ */
+public class BlockItemPersister implements ItemPersister {
+    private final File file;
+    private final STTFileLock fileLock;
+    private final AtomicFileReplacer replacer;
+
+    @Inject
+    public BlockItemPersister(@STTFile File file, STTFileLock fileLock, AtomicFileReplacer replacer) {
+        this.file = Objects.requireNonNull(file);
+        this.fileLock = Objects.requireNonNull(fileLock);
+        this.replacer = Objects.requireNonNull(replacer);
+    }
+
+    @Override
+    public void persist(TimeTrackingItem itemToInsert) {
+        apply(new Batch().insert(itemToInsert));
+    }
+
+    @Override
+    public void replace(TimeTrackingItem item, TimeTrackingItem with) {
+        apply(new Batch().replace(item, with));
+    }
+
+    @Override
+    public void delete(TimeTrackingItem item) {
+        apply(new Batch().delete(item));
+    }
+
+    @Override
+    public void apply(Batch batch) {
+        Objects.requireNonNull(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        fileLock.runLocked(() -> applyChanges(batch.getChanges()));
+    }
+
+    private void applyChanges(List<Change> changes) {
+        try {
+            List<long[]> blockIndex = file.exists() ? BlockItemReader.readBlockIndex(file) : Collections.emptyList();
+            int firstAffectedBlock = firstAffectedBlock(blockIndex, earliestStart(changes));
+            List<TimeTrackingItem> items = firstAffectedBlock < blockIndex.size()
+                    ? readAll(BlockItemReader.open(file, blockIndex.get(firstAffectedBlock)[0], null))
+                    : new ArrayList<>();
+            for (Change change : changes) {
+                if (change.itemToDelete != null) {
+                    ItemLists.delete(items, change.itemToDelete);
+                }
+                if (change.itemToInsert != null) {
+                    ItemLists.insert(items, change.itemToInsert);
+                }
+            }
+            // Only replaces the file once the copied blocks were read completely
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (BlockItemWriter out = new BlockItemWriter(content)) {
+                if (firstAffectedBlock > 0) {
+                    try (InputStream in = new FileInputStream(file)) {
+                        out.copyBlocks(in, blockIndex.get(firstAffectedBlock)[0],
+                                blockIndex.subList(0, firstAffectedBlock));
+                    }
+                }
+                for (TimeTrackingItem item : items) {
+                    out.write(item);
+                }
+            }
+            replacer.replaceWith(content.toByteArray(), content.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long earliestStart(List<Change> changes) {
+        long earliest = Long.MAX_VALUE;
+        for (Change change : changes) {
+            for (TimeTrackingItem item : new TimeTrackingItem[]{change.itemToDelete, change.itemToInsert}) {
+                if (item != null) {
+                    earliest = Math.min(earliest, item.getStart().toEpochSecond(ZoneOffset.UTC));
+                }
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * @return the index of the block holding the last item starting before the given time, or of the block holding
+     * the first item starting at or after it if there is none
+     */
+    private static int firstAffectedBlock(List<long[]> blockIndex, long earliestStart) {
+        int block = 0;
+        while (block < blockIndex.size() - 1 && blockIndex.get(block)[2] < earliestStart) {
+            block++;
+        }
+        if (block > 0 && blockIndex.get(block)[1] >= earliestStart) {
+            block--;
+        }
+        return block;
+    }
+
+    private static List<TimeTrackingItem> readAll(ItemReader reader) {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        try (ItemReader in = reader) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        return items;
+    }
+}
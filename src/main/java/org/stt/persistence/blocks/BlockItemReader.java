@@ -0,0 +1,212 @@
+package org.stt.persistence.blocks;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads items written by {@link BlockItemWriter}, one block at a time.
+ * <p>
+ * {@link #open(File, LocalDateTime)} uses the block index at the end of the file to skip all blocks with items
+ * starting before a given time. {@link BlockItemPersister} uses the index to only decode the blocks it rewrites.
+ * </p>
+ */
+public class BlockItemReader implements ItemReader {
+    private final DataInputStream in;
+    private final LocalDateTime from;
+    private final Inflater inflater = new Inflater();
+    private TimeTrackingItem[] block = new TimeTrackingItem[0];
+    private int next;
+    private boolean endReached;
+
+    public BlockItemReader(InputStream in) {
+        this(in, true, null);
+    }
+
+    private BlockItemReader(InputStream in, boolean readHeader, LocalDateTime from) {
+        this.in = new DataInputStream(new BufferedInputStream(Objects.requireNonNull(in)));
+        this.from = from;
+        if (readHeader) {
+            try {
+                readHeader();
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return a reader for all items of the file starting at or after the given time
+     */
+    public static ItemReader open(File file, LocalDateTime from) throws IOException {
+        Objects.requireNonNull(from);
+        long fromSeconds = from.toEpochSecond(ZoneOffset.UTC);
+        for (long[] block : readBlockIndex(file)) {
+            if (block[2] >= fromSeconds) {
+                return open(file, block[0], from);
+            }
+        }
+        return new BlockItemReader(new ByteArrayInputStream(new byte[0]));
+    }
+
+    /**
+     * @return a reader for the items of all blocks from the one at the given offset on, skipping items starting
+     * before the given time unless it is null
+     */
+    static ItemReader open(File file, long offset, LocalDateTime from) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            in.getChannel().position(offset);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new BlockItemReader(in, false, from);
+    }
+
+    /**
+     * @return offset, min start, max start and item count of each block of the file, read from its footer
+     */
+    static List<long[]> readBlockIndex(File file) throws IOException {
+        if (file.length() == 0) {
+            return Collections.emptyList();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 12);
+            long footerOffset = raf.readLong();
+            if (raf.readInt() != BlockItemWriter.MAGIC) {
+                throw new IOException(file + " is not a block file");
+            }
+            raf.seek(footerOffset + 4);
+            int blockCount = raf.readInt();
+            List<long[]> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new long[]{raf.readLong(), raf.readLong(), raf.readLong(), raf.readInt()});
+            }
+            return blocks;
+        }
+    }
+
+    @Override
+    public Optional<TimeTrackingItem> read() {
+        try {
+            while (true) {
+                while (next < block.length) {
+                    TimeTrackingItem item = block[next++];
+                    if (from == null || !item.getStart().isBefore(from)) {
+                        return Optional.of(item);
+                    }
+                }
+                if (endReached || !readBlock()) {
+                    endReached = true;
+                    return Optional.empty();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            // Empty files don't contain any items
+            endReached = true;
+            return;
+        }
+        if (magic != BlockItemWriter.MAGIC) {
+            throw new IOException("Not a block file");
+        }
+        int version = in.readInt();
+        if (version != BlockItemWriter.VERSION) {
+            throw new IOException("Unsupported block file version " + version);
+        }
+    }
+
+    private boolean readBlock() throws IOException {
+        int compressedLength = in.readInt();
+        if (compressedLength == 0) {
+            return false;
+        }
+        byte[] compressed = new byte[compressedLength];
+        byte[] uncompressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < uncompressed.length && !inflater.finished()) {
+                int inflated = inflater.inflate(uncompressed, length, uncompressed.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new EOFException("Truncated block");
+                }
+                length += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+        decodeBlock(new ByteArrayInputStream(uncompressed));
+        return true;
+    }
+
+    private void decodeBlock(ByteArrayInputStream bytes) throws IOException {
+        String[] activities = new String[(int) readVar(bytes)];
+        for (int i = 0; i < activities.length; i++) {
+            byte[] activity = new byte[(int) readVar(bytes)];
+            if (bytes.read(activity, 0, activity.length) != activity.length) {
+                throw new EOFException("Truncated dictionary");
+            }
+            activities[i] = new String(activity, StandardCharsets.UTF_8);
+        }
+        block = new TimeTrackingItem[(int) readVar(bytes)];
+        long start = 0;
+        for (int i = 0; i < block.length; i++) {
+            start += unzigzag(readVar(bytes));
+            long encodedDuration = readVar(bytes);
+            String activity = activities[(int) readVar(bytes)];
+            LocalDateTime startTime = LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+            block[i] = encodedDuration == 0 ? new TimeTrackingItem(activity, startTime)
+                    : new TimeTrackingItem(activity, startTime,
+                    LocalDateTime.ofEpochSecond(start + unzigzag(encodedDuration - 1), 0, ZoneOffset.UTC));
+        }
+        next = 0;
+    }
+
+    private static long readVar(ByteArrayInputStream bytes) throws EOFException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = bytes.read();
+            if (b < 0) {
+                throw new EOFException("Truncated block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,200 @@
+package org.stt.persistence.blocks;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+/**
+ * Writes items in blocks of {@link #DEFAULT_BLOCK_SIZE} items, each compressed on its own.
+ * <p>
+ * Layout, all fixed size numbers big endian:
+ * <pre>
+ * int magic, int version
+ * per block: int compressed length, int uncompressed length, deflated block
+ * int 0
+ * int block count, per block: long offset, long min start, long max start, int item count
+ * long offset of the int 0, int magic
+ * </pre>
+ * A block starts with its own dictionary of activities, so it can be decoded without any other block:
+ * <pre>
+ * var activity count, per activity: var byte length, UTF-8 bytes
+ * var item count, per item: var zigzag encoded delta of the start to the start of the previous item,
+ *      var 0 if ongoing or zigzag encoded end - start + 1, var activity id
+ * </pre>
+ * Times are in epoch seconds of UTC, sub second precision is dropped like in the stt format. Var numbers are
+ * stored in 7 bit groups, least significant first.
+ * </p>
+ */
+public class BlockItemWriter implements ItemWriter {
+    static final int MAGIC = 0x53545442;
+    static final int VERSION = 1;
+    static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+    private final List<TimeTrackingItem> block = new ArrayList<>();
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final List<long[]> blockInfos = new ArrayList<>();
+    private byte[] compressed = new byte[64 * 1024];
+    private boolean headerWritten;
+
+    public BlockItemWriter(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    public BlockItemWriter(OutputStream out, int blockSize) {
+        this.out = new DataOutputStream(new BufferedOutputStream(Objects.requireNonNull(out)));
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void write(TimeTrackingItem item) {
+        block.add(Objects.requireNonNull(item));
+        if (block.size() >= blockSize) {
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try (DataOutputStream toClose = out) {
+            writeBlock();
+            writeHeaderIfNeeded();
+            long footerOffset = out.size();
+            out.writeInt(0);
+            out.writeInt(blockInfos.size());
+            for (long[] info : blockInfos) {
+                out.writeLong(info[0]);
+                out.writeLong(info[1]);
+                out.writeLong(info[2]);
+                out.writeInt((int) info[3]);
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Starts with the header and the leading blocks of another file, copied without decoding them. Has to be called
+     * before any item is written.
+     *
+     * @param in         the other file, positioned at its start
+     * @param length     where the copied blocks end in the other file
+     * @param blockIndex offset, min start, max start and item count of each copied block
+     */
+    void copyBlocks(InputStream in, long length, List<long[]> blockIndex) throws IOException {
+        if (headerWritten || !block.isEmpty()) {
+            throw new IllegalStateException("Blocks have to be copied first");
+        }
+        byte[] buffer = new byte[8192];
+        for (long remaining = length; remaining > 0; ) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Truncated block file");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        headerWritten = true;
+        blockInfos.addAll(blockIndex);
+    }
+
+    private void writeHeaderIfNeeded() throws IOException {
+        if (!headerWritten) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            headerWritten = true;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        writeHeaderIfNeeded();
+        byte[] uncompressed = encodeBlock();
+        deflater.reset();
+        deflater.setInput(uncompressed);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = java.util.Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        long minStart = Long.MAX_VALUE;
+        long maxStart = Long.MIN_VALUE;
+        for (TimeTrackingItem item : block) {
+            long start = item.getStart().toEpochSecond(ZoneOffset.UTC);
+            minStart = Math.min(minStart, start);
+            maxStart = Math.max(maxStart, start);
+        }
+        blockInfos.add(new long[]{out.size(), minStart, maxStart, block.size()});
+        out.writeInt(compressedLength);
+        out.writeInt(uncompressed.length);
+        out.write(compressed, 0, compressedLength);
+        block.clear();
+    }
+
+    private byte[] encodeBlock() {
+        Map<String, Integer> activityIds = new HashMap<>();
+        List<String> activities = new ArrayList<>();
+        for (TimeTrackingItem item : block) {
+            if (activityIds.putIfAbsent(item.getActivity(), activities.size()) == null) {
+                activities.add(item.getActivity());
+            }
+        }
+        blockBytes.reset();
+        writeVar(activities.size());
+        for (String activity : activities) {
+            byte[] bytes = activity.getBytes(StandardCharsets.UTF_8);
+            writeVar(bytes.length);
+            blockBytes.write(bytes, 0, bytes.length);
+        }
+        writeVar(block.size());
+        long previousStart = 0;
+        for (TimeTrackingItem item : block) {
+            long start = item.getStart().toEpochSecond(ZoneOffset.UTC);
+            writeVar(zigzag(start - previousStart));
+            writeVar(item.getEnd().map(end -> zigzag(end.toEpochSecond(ZoneOffset.UTC) - start) + 1).orElse(0L));
+            writeVar(activityIds.get(item.getActivity()));
+            previousStart = start;
+        }
+        return blockBytes.toByteArray();
+    }
+
+    private void writeVar(long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            blockBytes.write((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        blockBytes.write((int) remaining);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
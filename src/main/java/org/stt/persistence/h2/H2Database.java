@@ -0,0 +1,171 @@
+package org.stt.persistence.h2;
+
+import org.stt.Service;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.ItemWriter;
+import org.stt.persistence.stt.STTFile;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded H2 database holding the items in one table, keyed by start. Times are stored as epoch seconds of UTC,
+ * like in the block format. The database files are placed next to the configured activities file, H2 adds the
+ * extension ".mv.db".
+ * <p>
+ * The connection is opened on first use and shared, modifications are serialized by this class. The database is
+ * opened in H2's automatic mixed mode: The first process opens it embedded and serves it to other processes, e.g. the
+ * CLI while the GUI is running, which connect to it remotely. {@link #stop()} closes the connection.
+ * </p>
+ */
+@Singleton
+public class H2Database implements Service {
+    private static final Logger LOG = Logger.getLogger(H2Database.class.getSimpleName());
+    static final String COLUMNS = "START_TIME, END_TIME, ACTIVITY";
+
+    private final String url;
+    private Connection connection;
+
+    @Inject
+    public H2Database(@STTFile File file) {
+        // Without write delay, commits are in the file before the STTFileLock gets released
+        this.url = "jdbc:h2:" + Objects.requireNonNull(file).getAbsolutePath() + ";AUTO_SERVER=TRUE;WRITE_DELAY=0";
+    }
+
+    /**
+     * @return a reader returning the items of the database at the given location, closing the database once done
+     */
+    public static ItemReader openReader(File file) {
+        H2Database database = new H2Database(file);
+        return database.reader(database::close);
+    }
+
+    /**
+     * @return a writer replacing the items of the database at the given location, closing the database once done
+     */
+    public static ItemWriter openWriter(File file) {
+        H2Database database = new H2Database(file);
+        return new H2ItemWriter(database, database::close);
+    }
+
+    /**
+     * @return a reader returning all items ordered by start
+     */
+    public ItemReader reader() {
+        return reader(() -> {
+        });
+    }
+
+    private ItemReader reader(Runnable onClose) {
+        try {
+            PreparedStatement statement = connection()
+                    .prepareStatement("SELECT " + COLUMNS + " FROM ITEMS ORDER BY START_TIME");
+            return new H2ItemReader(statement, onClose);
+        } catch (SQLException e) {
+            onClose.run();
+            throw failure(e);
+        }
+    }
+
+    /**
+     * @return a writer replacing all items once it gets closed
+     */
+    public ItemWriter writer() {
+        return new H2ItemWriter(this, () -> {
+        });
+    }
+
+    /**
+     * Runs the modification in a transaction, which is rolled back if the modification fails.
+     */
+    synchronized void inTransaction(Modification modification) {
+        try {
+            Connection transaction = connection();
+            transaction.setAutoCommit(false);
+            try {
+                modification.applyTo(transaction);
+                transaction.commit();
+            } catch (SQLException | RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            } finally {
+                transaction.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public void start() {
+        // The connection is opened on first use
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Couldn't close " + url, e);
+        }
+        connection = null;
+    }
+
+    private synchronized Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS ITEMS("
+                        + "START_TIME BIGINT PRIMARY KEY, END_TIME BIGINT, ACTIVITY VARCHAR NOT NULL)");
+                statement.execute("CREATE INDEX IF NOT EXISTS ITEMS_ACTIVITY ON ITEMS(ACTIVITY)");
+            }
+        }
+        return connection;
+    }
+
+    static UncheckedIOException failure(SQLException e) {
+        return new UncheckedIOException(new IOException(e));
+    }
+
+    static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static TimeTrackingItem itemAt(ResultSet row) throws SQLException {
+        LocalDateTime start = LocalDateTime.ofEpochSecond(row.getLong(1), 0, ZoneOffset.UTC);
+        long end = row.getLong(2);
+        return row.wasNull() ? new TimeTrackingItem(row.getString(3), start)
+                : new TimeTrackingItem(row.getString(3), start, LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC));
+    }
+
+    static void bind(PreparedStatement statement, TimeTrackingItem item) throws SQLException {
+        statement.setLong(1, toSeconds(item.getStart()));
+        if (item.getEnd().isPresent()) {
+            statement.setLong(2, toSeconds(item.getEnd().get()));
+        } else {
+            statement.setNull(2, Types.BIGINT);
+        }
+        statement.setString(3, item.getActivity());
+    }
+
+    interface Modification {
+        void applyTo(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,139 @@
+package org.stt.persistence.h2;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemPersister;
+import org.stt.persistence.stt.STTFileLock;
+
+import javax.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Persists items in the {@link H2Database}. Only the rows affected by a change are read and written, found by the
+ * index on their start. Changes are applied holding the {@link STTFileLock}, so watchers recognize them as their own.
+ */
+public class H2ItemPersister implements ItemPersister {
+    /**
+     * Items don't overlap, so only the last item starting at or before the inserted item may end after its start.
+     * An item without duration starting together with the inserted item is selected too, the primary key doesn't
+     * allow both.
+     */
+    private static final String SELECT_OVERLAPPING = "SELECT " + H2Database.COLUMNS + " FROM ITEMS"
+            + " WHERE START_TIME >= COALESCE((SELECT MAX(START_TIME) FROM ITEMS WHERE START_TIME <= ?), ?)"
+            + " AND START_TIME < ? AND (END_TIME IS NULL OR END_TIME > ? OR START_TIME = ?) ORDER BY START_TIME";
+
+    private final H2Database database;
+    private final STTFileLock fileLock;
+
+    @Inject
+    public H2ItemPersister(H2Database database, STTFileLock fileLock) {
+        this.database = Objects.requireNonNull(database);
+        this.fileLock = Objects.requireNonNull(fileLock);
+    }
+
+    @Override
+    public void persist(TimeTrackingItem item) {
+        apply(new Batch().insert(item));
+    }
+
+    @Override
+    public void replace(TimeTrackingItem item, TimeTrackingItem with) {
+        apply(new Batch().replace(item, with));
+    }
+
+    @Override
+    public void delete(TimeTrackingItem item) {
+        apply(new Batch().delete(item));
+    }
+
+    @Override
+    public void apply(Batch batch) {
+        Objects.requireNonNull(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        fileLock.runLocked(() -> database.inTransaction(connection -> {
+            for (Change change : batch.getChanges()) {
+                if (change.itemToDelete != null) {
+                    delete(connection, change.itemToDelete);
+                }
+                if (change.itemToInsert != null) {
+                    insert(connection, change.itemToInsert);
+                }
+            }
+        }));
+    }
+
+    private void delete(Connection connection, TimeTrackingItem item) throws SQLException {
+        String sql = "DELETE FROM ITEMS WHERE START_TIME = ? AND ACTIVITY = ? AND "
+                + (item.getEnd().isPresent() ? "END_TIME = ?" : "END_TIME IS NULL");
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, H2Database.toSeconds(item.getStart()));
+            statement.setString(2, item.getActivity());
+            if (item.getEnd().isPresent()) {
+                statement.setLong(3, H2Database.toSeconds(item.getEnd().get()));
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private void insert(Connection connection, TimeTrackingItem item) throws SQLException {
+        long start = H2Database.toSeconds(item.getStart());
+        List<TimeTrackingItem> overlapping = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_OVERLAPPING)) {
+            select.setLong(1, start);
+            select.setLong(2, start);
+            select.setLong(3, item.getEnd().map(H2Database::toSeconds).orElse(Long.MAX_VALUE));
+            select.setLong(4, start);
+            select.setLong(5, start);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    overlapping.add(H2Database.itemAt(rows));
+                }
+            }
+        }
+        List<TimeTrackingItem> updated = new ArrayList<>(overlapping);
+        ItemLists.insert(updated, item);
+        dropItemsWithoutDurationSharingTheirStart(updated, item);
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM ITEMS WHERE START_TIME = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO ITEMS(" + H2Database.COLUMNS + ") VALUES (?, ?, ?)")) {
+            for (TimeTrackingItem overlappingItem : overlapping) {
+                delete.setLong(1, H2Database.toSeconds(overlappingItem.getStart()));
+                delete.addBatch();
+            }
+            delete.executeBatch();
+            for (TimeTrackingItem updatedItem : updated) {
+                H2Database.bind(insert, updatedItem);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Unlike the activities file, the table keeps only one item per start. Of two items starting together, the one
+     * without duration is dropped. If both have none, the inserted item is kept.
+     */
+    private static void dropItemsWithoutDurationSharingTheirStart(List<TimeTrackingItem> items,
+                                                                  TimeTrackingItem insertedItem) {
+        for (int i = items.size() - 2; i >= 0; i--) {
+            TimeTrackingItem first = items.get(i);
+            TimeTrackingItem second = items.get(i + 1);
+            if (first.getStart().equals(second.getStart())) {
+                boolean dropFirst = hasNoDuration(first) && (!hasNoDuration(second) || second == insertedItem);
+                items.remove(dropFirst ? i : i + 1);
+            }
+        }
+    }
+
+    private static boolean hasNoDuration(TimeTrackingItem item) {
+        return item.getEnd().map(item.getStart()::equals).orElse(false);
+    }
+}
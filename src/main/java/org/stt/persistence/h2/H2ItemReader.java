@@ -0,0 +1,47 @@
+package org.stt.persistence.h2;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Streams the rows of a query as items.
+ */
+class H2ItemReader implements ItemReader {
+    private final PreparedStatement statement;
+    private final Runnable onClose;
+    private ResultSet rows;
+
+    H2ItemReader(PreparedStatement statement, Runnable onClose) {
+        this.statement = Objects.requireNonNull(statement);
+        this.onClose = Objects.requireNonNull(onClose);
+    }
+
+    @Override
+    public Optional<TimeTrackingItem> read() {
+        try {
+            if (rows == null) {
+                rows = statement.executeQuery();
+            }
+            return rows.next() ? Optional.of(H2Database.itemAt(rows)) : Optional.empty();
+        } catch (SQLException e) {
+            throw H2Database.failure(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            throw H2Database.failure(e);
+        } finally {
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.stt.persistence.h2;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemWriter;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Collects items and replaces all items of the database with them in one transaction once closed.
+ */
+class H2ItemWriter implements ItemWriter {
+    private static final int BATCH_SIZE = 1000;
+
+    private final H2Database database;
+    private final Runnable onClose;
+    private final List<TimeTrackingItem> items = new ArrayList<>();
+    private boolean closed;
+
+    H2ItemWriter(H2Database database, Runnable onClose) {
+        this.database = Objects.requireNonNull(database);
+        this.onClose = Objects.requireNonNull(onClose);
+    }
+
+    @Override
+    public void write(TimeTrackingItem item) {
+        items.add(Objects.requireNonNull(item));
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            database.inTransaction(connection -> {
+                try (Statement delete = connection.createStatement();
+                     PreparedStatement insert = connection.prepareStatement(
+                             "INSERT INTO ITEMS(" + H2Database.COLUMNS + ") VALUES (?, ?, ?)")) {
+                    delete.execute("DELETE FROM ITEMS");
+                    for (int i = 0; i < items.size(); i++) {
+                        H2Database.bind(insert, items.get(i));
+                        insert.addBatch();
+                        if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+            });
+        } finally {
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.stt.persistence.stt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out one shared instance per distinct activity, since histories repeat the same activities over and over.
+ * Equal activities of parsed items are then also identical, which lets {@link String#equals(Object)} return early.
+ * <p>
+ * Stops taking new entries once {@link #MAX_ENTRIES} is reached, activities are still returned unshared then.
+ * </p>
+ * <p>
+ * Not thread safe. Dictionaries used concurrently can share their instances through a common concurrent map, which
+ * is only consulted for activities not known to the dictionary itself.
+ * </p>
+ */
+class ActivityDictionary {
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    private byte[][] keys = new byte[64][];
+    private String[] values = new String[64];
+    private int size;
+    private final Map<String, String> byString = new HashMap<>();
+    private final ConcurrentMap<String, String> shared;
+
+    ActivityDictionary() {
+        this(null);
+    }
+
+    /**
+     * @param shared instances shared with other dictionaries, may be null
+     */
+    ActivityDictionary(ConcurrentMap<String, String> shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * @return the activity of the given UTF-8 bytes, without decoding them if it is already known
+     */
+    String get(byte[] bytes, int length) {
+        int hash = hash(bytes, length);
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        while (keys[index] != null) {
+            if (equals(keys[index], bytes, length)) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        String activity = share(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        if (size < MAX_ENTRIES) {
+            keys[index] = Arrays.copyOf(bytes, length);
+            values[index] = activity;
+            size++;
+            if (2 * size > keys.length) {
+                grow();
+            }
+        }
+        return activity;
+    }
+
+    /**
+     * @return the shared instance equal to the given activity
+     */
+    String get(String activity) {
+        String known = byString.get(activity);
+        if (known != null) {
+            return known;
+        }
+        String sharedActivity = share(activity);
+        if (byString.size() < MAX_ENTRIES) {
+            byString.put(sharedActivity, sharedActivity);
+        }
+        return sharedActivity;
+    }
+
+    private String share(String activity) {
+        if (shared == null || shared.size() >= MAX_ENTRIES) {
+            return activity;
+        }
+        String existing = shared.putIfAbsent(activity, activity);
+        return existing == null ? activity : existing;
+    }
+
+    private void grow() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            byte[] key = oldKeys[i];
+            if (key != null) {
+                int index = hash(key, key.length) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] key, byte[] bytes, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
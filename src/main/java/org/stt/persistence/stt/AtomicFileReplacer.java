@@ -0,0 +1,154 @@
+package org.stt.persistence.stt;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Replaces the content of a file, so that either the old or the new content survives a crash or a full disk:
+ * The new content is written to a temporary file next to it, forced to the disk and then moved over the file.
+ * <p>
+ * All writes are encoded into one direct buffer, which is allocated once and reused.
+ * </p>
+ */
+@Singleton
+public class AtomicFileReplacer {
+    private static final Logger LOG = Logger.getLogger(AtomicFileReplacer.class.getSimpleName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Path tempFile;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer buffer;
+
+    @Inject
+    public AtomicFileReplacer(@STTFile File file) {
+        this.file = Objects.requireNonNull(file).toPath();
+        this.tempFile = new File(file.getPath() + ".tmp").toPath();
+    }
+
+    /**
+     * @return a writer collecting the new content, which replaces the file once the writer gets closed
+     */
+    public Writer writer() {
+        return new StringWriter() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    replaceWith(getBuffer());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a stream collecting the new content, which replaces the file once the stream gets closed
+     */
+    public OutputStream outputStream() {
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                replaceWith(buf, count);
+            }
+        };
+    }
+
+    public synchronized void replaceWith(CharSequence content) throws IOException {
+        replace(channel -> {
+            CharBuffer in = CharBuffer.wrap(content);
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(in, buffer, true);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                drain(channel);
+            } while (result.isOverflow());
+            do {
+                result = encoder.flush(buffer);
+                drain(channel);
+            } while (result.isOverflow());
+        });
+    }
+
+    public synchronized void replaceWith(byte[] content, int length) throws IOException {
+        replace(channel -> {
+            for (int offset = 0; offset < length; offset += buffer.capacity()) {
+                buffer.put(content, offset, Math.min(buffer.capacity(), length - offset));
+                drain(channel);
+            }
+        });
+    }
+
+    /**
+     * @param contentWriter writes the new content to the channel of the temporary file
+     */
+    public synchronized void replaceWith(ContentWriter contentWriter) throws IOException {
+        replace(contentWriter);
+    }
+
+    private void replace(ContentWriter contentWriter) throws IOException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            contentWriter.writeTo(channel);
+            channel.force(true);
+        } finally {
+            buffer.clear();
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOG.warning("Atomic move not supported, replacing " + file + " non atomically");
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void drain(FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public interface ContentWriter {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+}
@@ -0,0 +1,64 @@
+package org.stt.persistence.stt;
+
+import org.stt.config.PersistenceConfig;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemPersister;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Appends all modifications to the {@link STTJournal} instead of rewriting the .stt file. Once the journal
+ * holds {@link PersistenceConfig#getJournalCompactionThreshold()} records, it gets compacted in the background.
+ */
+public class JournalingItemPersister implements ItemPersister {
+    private final STTJournal journal;
+    private final PersistenceConfig config;
+
+    public JournalingItemPersister(STTJournal journal, PersistenceConfig config) {
+        this.journal = requireNonNull(journal);
+        this.config = requireNonNull(config);
+    }
+
+    @Override
+    public void persist(TimeTrackingItem item) {
+        requireNonNull(item);
+        journal.appendInsert(item);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void replace(TimeTrackingItem item, TimeTrackingItem with) {
+        requireNonNull(item);
+        requireNonNull(with);
+        journal.appendReplace(item, with);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void delete(TimeTrackingItem item) {
+        requireNonNull(item);
+        journal.appendDelete(item);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void apply(Batch batch) {
+        requireNonNull(batch);
+        for (Change change : batch.getChanges()) {
+            if (change.itemToInsert == null) {
+                journal.appendDelete(change.itemToDelete);
+            } else if (change.itemToDelete == null) {
+                journal.appendInsert(change.itemToInsert);
+            } else {
+                journal.appendReplace(change.itemToDelete, change.itemToInsert);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (journal.size() >= config.getJournalCompactionThreshold()) {
+            journal.compactInBackground();
+        }
+    }
+}
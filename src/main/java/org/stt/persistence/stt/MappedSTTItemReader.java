@@ -0,0 +1,259 @@
+package org.stt.persistence.stt;
+
+import org.stt.StopWatch;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the same format as {@link STTItemReader}, but parses the memory mapped file directly.
+ * Timestamps are parsed from the raw bytes by {@link STTDateTimeCodec}, only activities not seen before get decoded into a String.
+ * <p>
+ * Files of at least the given parallel threshold are split into chunks at line boundaries, which are parsed
+ * concurrently on the common fork join pool before the first item is returned. The chunks share their activity
+ * instances.
+ * </p>
+ * <p>
+ * The mapping is released on {@link #close()}, since some platforms refuse to truncate mapped files.
+ * </p>
+ */
+public class MappedSTTItemReader implements ItemReader {
+    private static final Logger LOG = Logger.getLogger(MappedSTTItemReader.class.getSimpleName());
+    private static final int DATE_TIME_LENGTH = STTDateTimeCodec.LENGTH;
+    private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+
+    private MappedByteBuffer buffer;
+    private Chunk chunk;
+    private List<TimeTrackingItem> parsedItems;
+    private int[] parsedOffsets;
+    private int nextParsedItem;
+    private int offsetOfLastItem = -1;
+
+    public MappedSTTItemReader(File sttFile) {
+        this(sttFile, Long.MAX_VALUE);
+    }
+
+    public MappedSTTItemReader(File sttFile, long parallelThreshold) {
+        try (FileChannel channel = FileChannel.open(sttFile.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.limit() >= parallelThreshold) {
+            parseInParallel();
+        } else {
+            chunk = new Chunk(buffer, 0, buffer.limit(), new ActivityDictionary());
+        }
+    }
+
+    private void parseInParallel() {
+        StopWatch stopWatch = new StopWatch("Parallel parsing");
+        int limit = buffer.limit();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, limit / (4 * ForkJoinPool.getCommonPoolParallelism()) + 1);
+        List<Chunk> chunks = new ArrayList<>();
+        ConcurrentMap<String, String> sharedActivities = new ConcurrentHashMap<>();
+        int from = 0;
+        while (from < limit) {
+            int to = Math.min(limit, from + chunkSize);
+            while (to < limit && buffer.get(to - 1) != '\n') {
+                to++;
+            }
+            chunks.add(new Chunk(buffer.duplicate(), from, to, new ActivityDictionary(sharedActivities)));
+            from = to;
+        }
+        chunks.parallelStream().forEach(Chunk::readAll);
+        parsedItems = new ArrayList<>();
+        parsedOffsets = new int[chunks.stream().mapToInt(c -> c.items.size()).sum()];
+        for (Chunk parsed : chunks) {
+            System.arraycopy(parsed.offsets, 0, parsedOffsets, parsedItems.size(), parsed.items.size());
+            parsedItems.addAll(parsed.items);
+        }
+        stopWatch.stop();
+    }
+
+    @Override
+    public Optional<TimeTrackingItem> read() {
+        if (parsedItems != null && nextParsedItem < parsedItems.size()) {
+            offsetOfLastItem = parsedOffsets[nextParsedItem];
+            return Optional.of(parsedItems.get(nextParsedItem++));
+        }
+        TimeTrackingItem item = chunk == null ? null : chunk.next();
+        if (item == null) {
+            close();
+            return Optional.empty();
+        }
+        offsetOfLastItem = chunk.lineStart;
+        return Optional.of(item);
+    }
+
+    /**
+     * @return the byte offset of the line of the item returned last by {@link #read()}
+     */
+    int getOffsetOfLastItem() {
+        return offsetOfLastItem;
+    }
+
+    @Override
+    public void close() {
+        if (buffer == null) {
+            return;
+        }
+        unmap(buffer);
+        buffer = null;
+        chunk = null;
+        parsedItems = null;
+        parsedOffsets = null;
+    }
+
+    /**
+     * Best effort, the mapping is otherwise released when the buffer gets garbage collected.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.log(Level.FINE, "Could not unmap activities file", e);
+        }
+    }
+
+    /**
+     * Parses the lines of a part of the file. Chunks share the mapped content, but not their parsing state.
+     */
+    private static class Chunk {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+        private int lineStart;
+        private List<TimeTrackingItem> items;
+        private int[] offsets;
+        private byte[] activityBytes = new byte[256];
+        private final ActivityDictionary activities;
+        private final STTDateTimeCodec dateTimes = new STTDateTimeCodec();
+
+        Chunk(ByteBuffer buffer, int from, int to, ActivityDictionary activities) {
+            this.buffer = buffer;
+            this.activities = activities;
+            this.position = from;
+            this.limit = to;
+        }
+
+        void readAll() {
+            items = new ArrayList<>();
+            offsets = new int[64];
+            TimeTrackingItem item;
+            while ((item = next()) != null) {
+                if (items.size() == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[items.size()] = lineStart;
+                items.add(item);
+            }
+        }
+
+        /**
+         * @return the next item or null if there are no more lines in this chunk
+         */
+        TimeTrackingItem next() {
+            while (position < limit) {
+                lineStart = position;
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r') {
+                    lineEnd++;
+                }
+                position = lineEnd;
+                if (position < limit && buffer.get(position) == '\r') {
+                    position++;
+                }
+                if (position < limit && buffer.get(position) == '\n') {
+                    position++;
+                }
+                // ignore empty lines or ones just containing whitespace
+                if (!isBlank(lineStart, lineEnd)) {
+                    return parseLine(lineStart, lineEnd);
+                }
+            }
+            return null;
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                int b = buffer.get(i) & 0xff;
+                if (b > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private TimeTrackingItem parseLine(int from, int to) {
+            long start = to - from >= DATE_TIME_LENGTH ? dateTimes.parse(buffer, from) : STTDateTimeCodec.INVALID;
+            if (start == STTDateTimeCodec.INVALID) {
+                throw new IllegalStateException("Invalid line: " + decode(from, to));
+            }
+            long end = to - from >= 2 * DATE_TIME_LENGTH + 1 ? dateTimes.parse(buffer, from + DATE_TIME_LENGTH + 1)
+                    : STTDateTimeCodec.INVALID;
+            int activityStart = from
+                    + (end == STTDateTimeCodec.INVALID ? DATE_TIME_LENGTH + 1 : 2 * DATE_TIME_LENGTH + 2);
+            String activity = to > activityStart ? unescape(activityStart, to) : "";
+            if (end != STTDateTimeCodec.INVALID) {
+                return new TimeTrackingItem(activity, dateTimes.toLocalDateTime(start), dateTimes.toLocalDateTime(end));
+            }
+            return new TimeTrackingItem(activity, dateTimes.toLocalDateTime(start));
+        }
+
+        /**
+         * The escape sequences only consist of ASCII characters, which never occur within multibyte UTF-8 sequences.
+         * So they can be replaced before decoding.
+         */
+        private String unescape(int from, int to) {
+            if (activityBytes.length < to - from) {
+                activityBytes = new byte[Math.max(to - from, activityBytes.length * 2)];
+            }
+            int n = 0;
+            int i = from;
+            while (i < to) {
+                byte next = buffer.get(i);
+                if (next == '\\' && i + 1 < to) {
+                    i++;
+                    byte escaped = buffer.get(i);
+                    activityBytes[n++] = escaped == 'n' ? (byte) '\n' : escaped;
+                } else {
+                    activityBytes[n++] = next;
+                }
+                i++;
+            }
+            return activities.get(activityBytes, n);
+        }
+
+        private String decode(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(from + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.stt.persistence.stt;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemPersister;
+import org.stt.persistence.ItemReader;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persists items into {@link STTPartitions}. Only the partitions a change can affect are read and only the ones
+ * actually changed get rewritten: The partition of the item, the previous one, whose last item might end after the
+ * start of the item, and the following ones up to the end of the item.
+ */
+public class PartitionedItemPersister implements ItemPersister {
+    private final STTPartitions partitions;
+    private final STTFileLock fileLock;
+
+    @Inject
+    public PartitionedItemPersister(STTPartitions partitions, STTFileLock fileLock) {
+        this.partitions = requireNonNull(partitions);
+        this.fileLock = requireNonNull(fileLock);
+    }
+
+    @Override
+    public void persist(TimeTrackingItem item) {
+        apply(new Batch().insert(item));
+    }
+
+    @Override
+    public void replace(TimeTrackingItem item, TimeTrackingItem with) {
+        apply(new Batch().replace(item, with));
+    }
+
+    @Override
+    public void delete(TimeTrackingItem item) {
+        apply(new Batch().delete(item));
+    }
+
+    @Override
+    public void apply(Batch batch) {
+        requireNonNull(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        fileLock.runLocked(() -> {
+            try {
+                applyChanges(batch.getChanges());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void applyChanges(List<Change> changes) throws IOException {
+        NavigableSet<String> existing = partitions.keys();
+        SortedSet<String> affected = new TreeSet<>();
+        for (Change change : changes) {
+            if (change.itemToDelete != null) {
+                affected.add(partitions.keyOf(change.itemToDelete.getStart()));
+            }
+            if (change.itemToInsert != null) {
+                addAffectedByInsert(existing, affected, change.itemToInsert);
+            }
+        }
+        Map<String, List<TimeTrackingItem>> before = new TreeMap<>();
+        List<TimeTrackingItem> items = new ArrayList<>();
+        for (String key : affected) {
+            List<TimeTrackingItem> partition = read(partitions.fileOf(key));
+            before.put(key, partition);
+            items.addAll(partition);
+        }
+        for (Change change : changes) {
+            if (change.itemToDelete != null) {
+                ItemLists.delete(items, change.itemToDelete);
+            }
+            if (change.itemToInsert != null) {
+                ItemLists.insert(items, change.itemToInsert);
+            }
+        }
+        Map<String, List<TimeTrackingItem>> after = new TreeMap<>();
+        for (String key : affected) {
+            after.put(key, new ArrayList<>());
+        }
+        for (TimeTrackingItem item : items) {
+            after.computeIfAbsent(partitions.keyOf(item.getStart()), key -> new ArrayList<>()).add(item);
+        }
+        for (Map.Entry<String, List<TimeTrackingItem>> partition : after.entrySet()) {
+            if (!partition.getValue().equals(before.get(partition.getKey()))) {
+                partitions.write(partition.getKey(), partition.getValue());
+            }
+        }
+    }
+
+    private void addAffectedByInsert(NavigableSet<String> existing, SortedSet<String> affected,
+                                     TimeTrackingItem item) {
+        String key = partitions.keyOf(item.getStart());
+        affected.add(key);
+        String previous = existing.lower(key);
+        if (previous != null) {
+            affected.add(previous);
+        }
+        if (!item.getEnd().isPresent()) {
+            affected.addAll(existing.tailSet(key, false));
+            return;
+        }
+        String endKey = partitions.keyOf(item.getEnd().get());
+        if (endKey.compareTo(key) > 0) {
+            affected.addAll(existing.subSet(key, false, endKey, true));
+        }
+    }
+
+    private static List<TimeTrackingItem> read(File partition) {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        if (!partition.exists()) {
+            return items;
+        }
+        try (ItemReader in = new MappedSTTItemReader(partition)) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,48 @@
+package org.stt.persistence.stt;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the given partitions one after the other, each one is only opened once the previous one is exhausted.
+ */
+class PartitionedItemReader implements ItemReader {
+    private final Iterator<File> partitions;
+    private ItemReader current;
+
+    PartitionedItemReader(List<File> partitions) {
+        this.partitions = new ArrayList<>(partitions).iterator();
+    }
+
+    @Override
+    public Optional<TimeTrackingItem> read() {
+        while (true) {
+            if (current == null) {
+                if (!partitions.hasNext()) {
+                    return Optional.empty();
+                }
+                current = new MappedSTTItemReader(partitions.next());
+            }
+            Optional<TimeTrackingItem> item = current.read();
+            if (item.isPresent()) {
+                return item;
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+}
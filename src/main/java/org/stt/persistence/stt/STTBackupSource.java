@@ -0,0 +1,94 @@
+package org.stt.persistence.stt;
+
+import org.stt.config.PersistenceConfig;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.BackupSource;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.ItemWriter;
+import org.stt.persistence.h2.H2Database;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the activities file, followed by all partitions if partitioned. Since partitions are consecutive ranges of
+ * items, the result is the unpartitioned activities file.
+ * <p>
+ * Pending records of the {@link STTJournal} and the items of the {@link H2Database} only exist in their own files, so
+ * they are written in the stt format instead.
+ * </p>
+ */
+public class STTBackupSource implements BackupSource {
+    private final PersistenceConfig config;
+    private final File sttFile;
+    private final STTFileLock fileLock;
+    private final Provider<STTPartitions> partitions;
+    private final STTJournal journal;
+    private final Provider<H2Database> database;
+
+    @Inject
+    public STTBackupSource(PersistenceConfig config,
+                           @STTFile File sttFile,
+                           STTFileLock fileLock,
+                           Provider<STTPartitions> partitions,
+                           STTJournal journal,
+                           Provider<H2Database> database) {
+        this.config = requireNonNull(config);
+        this.sttFile = requireNonNull(sttFile);
+        this.fileLock = requireNonNull(fileLock);
+        this.partitions = requireNonNull(partitions);
+        this.journal = requireNonNull(journal);
+        this.database = requireNonNull(database);
+    }
+
+    @Override
+    public byte[] content() throws IOException {
+        if (config.isH2Format()) {
+            return export(database.get().reader());
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            fileLock.runLocked(() -> {
+                try {
+                    if (!config.isBlockFormat() && journal.size() > 0) {
+                        content.write(export(journal.replayOnto(new MappedSTTItemReader(sttFile))));
+                        return;
+                    }
+                    content.write(Files.readAllBytes(sttFile.toPath()));
+                    if (config.isPartitioned()) {
+                        for (File partition : partitions.get().files()) {
+                            content.write(Files.readAllBytes(partition.toPath()));
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return content.toByteArray();
+    }
+
+    private static byte[] export(ItemReader reader) {
+        StringWriter content = new StringWriter();
+        try (ItemReader in = reader;
+             ItemWriter out = new STTItemWriter(content)) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                out.write(item.get());
+            }
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
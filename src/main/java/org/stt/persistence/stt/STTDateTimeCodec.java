@@ -0,0 +1,158 @@
+package org.stt.persistence.stt;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Converts between the timestamps of the stt format, "yyyy-MM-dd_HH:mm:ss", and seconds since the epoch of the local
+ * time line, like {@link LocalDateTime#toEpochSecond(ZoneOffset)} with UTC.
+ * <p>
+ * Consecutive lines mostly share their date, so the last date is cached as characters, as epoch day and as
+ * {@link LocalDate}. Timestamps of the same day only need their time parsed or formatted.
+ * </p>
+ * <p>
+ * Not thread safe, each reader and writer uses its own instance.
+ * </p>
+ */
+class STTDateTimeCodec {
+    static final int LENGTH = 19;
+    static final long INVALID = Long.MIN_VALUE;
+    private static final int DATE_LENGTH = 10;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final char[] timestamp = new char[LENGTH];
+    private final char[] date = new char[DATE_LENGTH];
+    private long epochDay = Long.MIN_VALUE;
+    private LocalDate localDate;
+    private boolean fourDigitYear;
+
+    /**
+     * @return the epoch second of the timestamp starting at the given index or {@link #INVALID} if there is none
+     */
+    long parse(CharSequence text, int at) {
+        if (text.length() - at < LENGTH) {
+            return INVALID;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            timestamp[i] = text.charAt(at + i);
+        }
+        return parseTimestamp();
+    }
+
+    /**
+     * @return the epoch second of the timestamp starting at the given index or {@link #INVALID} if there is none
+     */
+    long parse(ByteBuffer buffer, int at) {
+        if (buffer.limit() - at < LENGTH) {
+            return INVALID;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            timestamp[i] = (char) (buffer.get(at + i) & 0xff);
+        }
+        return parseTimestamp();
+    }
+
+    private long parseTimestamp() {
+        if (timestamp[10] != '_' || timestamp[13] != ':' || timestamp[16] != ':'
+                || !isDigits(11, 2) || !isDigits(14, 2) || !isDigits(17, 2)) {
+            return INVALID;
+        }
+        if (!isCachedDate()) {
+            if (!isDigits(0, 4) || timestamp[4] != '-' || !isDigits(5, 2) || timestamp[7] != '-' || !isDigits(8, 2)) {
+                return INVALID;
+            }
+            cacheDate(LocalDate.of(number(0, 4), number(5, 2), number(8, 2)));
+        }
+        int hour = number(11, 2);
+        int minute = number(14, 2);
+        int second = number(17, 2);
+        if (hour > 23 || minute > 59 || second > 59) {
+            throw new DateTimeException("Invalid time " + new String(timestamp));
+        }
+        return epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+    }
+
+    private boolean isCachedDate() {
+        if (!fourDigitYear) {
+            return false;
+        }
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            if (timestamp[i] != date[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isDigits(int at, int count) {
+        for (int i = at; i < at + count; i++) {
+            if (timestamp[i] < '0' || timestamp[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int number(int at, int count) {
+        int result = 0;
+        for (int i = at; i < at + count; i++) {
+            result = result * 10 + timestamp[i] - '0';
+        }
+        return result;
+    }
+
+    LocalDateTime toLocalDateTime(long epochSecond) {
+        cacheDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        return LocalDateTime.of(localDate, LocalTime.ofSecondOfDay(Math.floorMod(epochSecond, SECONDS_PER_DAY)));
+    }
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    void append(StringBuilder builder, long epochSecond) {
+        cacheDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        builder.append(date);
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        builder.append('_');
+        appendTwoDigits(builder, secondOfDay / 3600);
+        builder.append(':');
+        appendTwoDigits(builder, secondOfDay / 60 % 60);
+        builder.append(':');
+        appendTwoDigits(builder, secondOfDay % 60);
+    }
+
+    private static void appendTwoDigits(StringBuilder builder, int value) {
+        builder.append((char) (value / 10 % 10 + '0'));
+        builder.append((char) (value % 10 + '0'));
+    }
+
+    private void cacheDay(long day) {
+        if (day != epochDay) {
+            cacheDate(LocalDate.ofEpochDay(day));
+        }
+    }
+
+    private void cacheDate(LocalDate newDate) {
+        localDate = newDate;
+        epochDay = newDate.toEpochDay();
+        int year = newDate.getYear();
+        fourDigitYear = year >= 0 && year <= 9999;
+        int month = newDate.getMonthValue();
+        int day = newDate.getDayOfMonth();
+        date[0] = (char) (year / 1000 % 10 + '0');
+        date[1] = (char) (year / 100 % 10 + '0');
+        date[2] = (char) (year / 10 % 10 + '0');
+        date[3] = (char) (year % 10 + '0');
+        date[4] = '-';
+        date[5] = (char) (month / 10 % 10 + '0');
+        date[6] = (char) (month % 10 + '0');
+        date[7] = '-';
+        date[8] = (char) (day / 10 % 10 + '0');
+        date[9] = (char) (day % 10 + '0');
+    }
+}
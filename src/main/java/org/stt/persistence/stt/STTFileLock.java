@@ -0,0 +1,97 @@
+package org.stt.persistence.stt;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Advisory lock coordinating modifications of the activities file between processes, e.g. GUI and CLI.
+ * <p>
+ * The lock is held on a separate .lock file, since the activities file itself gets replaced on each rewrite.
+ * It is reentrant within this process.
+ * </p>
+ */
+@Singleton
+public class STTFileLock {
+    private final File lockFile;
+    private final ReentrantLock localLock = new ReentrantLock();
+    private final List<Runnable> unlockListeners = new CopyOnWriteArrayList<>();
+    private FileChannel channel;
+
+    @Inject
+    public STTFileLock(@STTFile File sttFile) {
+        this.lockFile = new File(Objects.requireNonNull(sttFile).getPath() + ".lock");
+    }
+
+    /**
+     * The listener is called after each modification, while the lock is still held.
+     */
+    public void addUnlockListener(Runnable listener) {
+        unlockListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Runs the given modification while holding the lock, blocking until other processes released it.
+     */
+    public void runLocked(Runnable modification) {
+        lock();
+        try {
+            modification.run();
+        } finally {
+            unlock();
+        }
+    }
+
+    private void lock() {
+        localLock.lock();
+        if (localLock.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.lock();
+        } catch (IOException e) {
+            try {
+                closeChannel();
+            } finally {
+                localLock.unlock();
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void unlock() {
+        try {
+            if (localLock.getHoldCount() == 1) {
+                try {
+                    unlockListeners.forEach(Runnable::run);
+                } finally {
+                    // Closing the channel releases the lock
+                    closeChannel();
+                }
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+        }
+    }
+}
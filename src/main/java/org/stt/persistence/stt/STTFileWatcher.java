@@ -0,0 +1,271 @@
+package org.stt.persistence.stt;
+
+import net.engio.mbassy.bus.MBassador;
+import org.stt.Service;
+import org.stt.config.PersistenceConfig;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemModified;
+import org.stt.model.ItemReplaced;
+import org.stt.model.ItemsChangedExternally;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Watches the {@link STTStoreFiles} of the configured format for modifications by other processes and publishes them,
+ * so caches get updated.
+ * <p>
+ * If the activities file in the unpartitioned "stt" format just grew, only the new lines and the previously last line are read and published as
+ * {@link ItemInserted} and {@link ItemReplaced} events. This is the case for new activities added by the CLI.
+ * Otherwise {@link ItemsChangedExternally} is published, which clears the caches. Whether the file just grew is
+ * decided by comparing the {@link #WINDOW} bytes before the previously last line, which covers everything
+ * {@link TailInsertHelper} might rewrite.
+ * </p>
+ * <p>
+ * Modifications of this process are recognized by taking a snapshot of the file state while still holding the
+ * {@link STTFileLock}.
+ * </p>
+ */
+@Singleton
+public class STTFileWatcher implements Service {
+    private static final Logger LOG = Logger.getLogger(STTFileWatcher.class.getSimpleName());
+    private static final int WINDOW = 64 * 1024;
+
+    private final File sttFile;
+    private final File journalFile;
+    private final STTStoreFiles storeFiles;
+    private final STTFileLock fileLock;
+    private final MBassador<Object> eventBus;
+    private final Executor eventDispatcher;
+    private final PersistenceConfig config;
+    private WatchService watchService;
+    private Snapshot known;
+
+    @Inject
+    public STTFileWatcher(@STTFile File sttFile,
+                          STTStoreFiles storeFiles,
+                          STTFileLock fileLock,
+                          MBassador<Object> eventBus,
+                          @Named("eventDispatcher") Executor eventDispatcher,
+                          PersistenceConfig config) {
+        this.sttFile = requireNonNull(sttFile);
+        this.journalFile = new File(sttFile.getPath() + ".journal");
+        this.storeFiles = requireNonNull(storeFiles);
+        this.fileLock = requireNonNull(fileLock);
+        this.eventBus = requireNonNull(eventBus);
+        this.eventDispatcher = requireNonNull(eventDispatcher);
+        this.config = requireNonNull(config);
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (!config.isWatchForChanges()) {
+            return;
+        }
+        Path directory = sttFile.getAbsoluteFile().getParentFile().toPath();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        fileLock.addUnlockListener(this::takeSnapshot);
+        fileLock.runLocked(() -> {
+            // The listener takes the first snapshot
+        });
+        Thread watcher = new Thread(this::watch, "STT file watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Couldn't stop watching " + sttFile, e);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object name = event.context();
+                    relevant |= name == null || storeFiles.isStoreFileName(name.toString());
+                }
+                key.reset();
+                if (relevant) {
+                    checkForChanges();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOG.fine("Stopped watching activities file");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "Stopped watching activities file", e);
+        }
+    }
+
+    void checkForChanges() {
+        fileLock.runLocked(this::publishChanges);
+    }
+
+    private void publishChanges() {
+        Snapshot current = readSnapshot();
+        if (current.sameFileStateAs(known)) {
+            return;
+        }
+        List<ItemModified> events = new ArrayList<>();
+        if (!current.sameJournalStateAs(known)) {
+            events.add(new ItemsChangedExternally());
+        } else {
+            Optional<List<ItemModified>> appended = readAppendedItems(current);
+            if (appended.isPresent()) {
+                events.addAll(appended.get());
+            } else {
+                events.add(new ItemsChangedExternally());
+            }
+        }
+        LOG.fine(() -> "Activities file changed externally, publishing " + events.size() + " event(s)");
+        eventDispatcher.execute(() -> events.forEach(eventBus::publish));
+    }
+
+    private Optional<List<ItemModified>> readAppendedItems(Snapshot current) {
+        if (known.lastLineStart < 0 || current.length <= known.length) {
+            return Optional.empty();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(sttFile, "r")) {
+            byte[] window = new byte[known.window.length];
+            file.seek(known.lastLineStart - window.length);
+            file.readFully(window);
+            if (!Arrays.equals(window, known.window)) {
+                return Optional.empty();
+            }
+            byte[] newLines = new byte[(int) (current.length - known.lastLineStart)];
+            file.seek(known.lastLineStart);
+            file.readFully(newLines);
+            List<TimeTrackingItem> items = new ArrayList<>();
+            try (ItemReader in = new STTItemReader(new StringReader(new String(newLines, StandardCharsets.UTF_8)))) {
+                Optional<TimeTrackingItem> item;
+                while ((item = in.read()).isPresent()) {
+                    items.add(item.get());
+                }
+            }
+            List<ItemModified> events = new ArrayList<>();
+            if (known.lastItem != null) {
+                if (items.isEmpty() || !items.get(0).getStart().equals(known.lastItem.getStart())) {
+                    return Optional.empty();
+                }
+                TimeTrackingItem previouslyLastItem = items.remove(0);
+                if (!previouslyLastItem.equals(known.lastItem)) {
+                    events.add(new ItemReplaced(known.lastItem, previouslyLastItem));
+                }
+            }
+            items.forEach(item -> events.add(new ItemInserted(item)));
+            return Optional.of(events);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "Couldn't read appended items", e);
+            return Optional.empty();
+        }
+    }
+
+    private void takeSnapshot() {
+        known = readSnapshot();
+    }
+
+    private Snapshot readSnapshot() {
+        Snapshot snapshot = new Snapshot(storeFiles.state(), sttFile.length(), journalFile.length(),
+                journalFile.lastModified());
+        if (!isAppendOnlyText()) {
+            // Neither the block format nor the database can be read line by line, partitions are not written in place
+            return snapshot;
+        }
+        if (snapshot.length == 0) {
+            snapshot.lastLineStart = 0;
+            return snapshot;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(sttFile, "r")) {
+            int size = (int) Math.min(2 * WINDOW, snapshot.length);
+            byte[] tail = new byte[size];
+            long tailStart = snapshot.length - size;
+            file.seek(tailStart);
+            file.readFully(tail);
+            int lineEnd = size;
+            while (lineEnd > 0 && (tail[lineEnd - 1] == '\n' || tail[lineEnd - 1] == '\r')) {
+                lineEnd--;
+            }
+            int lineStart = lineEnd;
+            while (lineStart > 0 && tail[lineStart - 1] != '\n') {
+                lineStart--;
+            }
+            if (tailStart > 0 && lineStart < WINDOW) {
+                // Last line too long to compare the window before it
+                return snapshot;
+            }
+            String lastLine = new String(tail, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            snapshot.lastItem = lastLine.trim().isEmpty() ? null : new STTItemConverter().lineToTimeTrackingItem(lastLine);
+            snapshot.window = Arrays.copyOfRange(tail, Math.max(0, lineStart - WINDOW), lineStart);
+            snapshot.lastLineStart = tailStart + lineStart;
+        } catch (IOException | RuntimeException e) {
+            // Only prevents reading just the appended items on the next change
+            LOG.log(Level.FINE, "Couldn't read last line", e);
+        }
+        return snapshot;
+    }
+
+    private boolean isAppendOnlyText() {
+        return !config.isH2Format() && !config.isBlockFormat() && !config.isPartitioned();
+    }
+
+    private static class Snapshot {
+        private final long[] state;
+        private final long length;
+        private final long journalLength;
+        private final long journalLastModified;
+        private long lastLineStart = -1;
+        private byte[] window = new byte[0];
+        private TimeTrackingItem lastItem;
+
+        Snapshot(long[] state, long length, long journalLength, long journalLastModified) {
+            this.state = state;
+            this.length = length;
+            this.journalLength = journalLength;
+            this.journalLastModified = journalLastModified;
+        }
+
+        boolean sameFileStateAs(Snapshot other) {
+            return Arrays.equals(state, other.state);
+        }
+
+        boolean sameJournalStateAs(Snapshot other) {
+            return journalLength == other.journalLength && journalLastModified == other.journalLastModified;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package org.stt.persistence.stt;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Binary sidecar of the activities file, so it doesn't have to be parsed on each start.
+ * <p>
+ * The index is only used if length, modification time and the CRC32 of the last {@link #TAIL_BYTES} bytes of the
+ * activities file match the ones recorded in its header, so checking it doesn't read the whole activities file.
+ * Otherwise the activities file gets parsed and the index is rewritten once all items were read. Inserts near the
+ * end of the file update the index by {@link #update(Snapshot, long)}, other modifications leave it stale until the
+ * next read.
+ * </p>
+ * <p>
+ * An index which is truncated, corrupt or doesn't match its own checksum is ignored as a whole.
+ * </p>
+ * <p>
+ * Layout, all numbers big endian:
+ * <pre>
+ * int magic, int version, long file length, long file modification time, long CRC32 of the file's tail
+ * int activity count, per activity: int byte length, UTF-8 bytes
+ * int item count, per item: long start, long end ({@link Long#MIN_VALUE} if ongoing), int activity id, long offset
+ * long CRC32 of all preceding bytes
+ * </pre>
+ * Start and end are in epoch seconds of UTC, offset is the byte offset of the item's line in the activities file.
+ * </p>
+ */
+@Singleton
+public class STTIndex {
+    private static final Logger LOG = Logger.getLogger(STTIndex.class.getSimpleName());
+    private static final int MAGIC = 0x53545449;
+    private static final int VERSION = 3;
+    private static final int TAIL_BYTES = 64 * 1024;
+    private static final long NO_END = Long.MIN_VALUE;
+    private static final int ITEM_BYTES = 8 + 8 + 4 + 8;
+    private static final int CHECKSUM_BYTES = 8;
+
+    private final File sttFile;
+    private final File indexFile;
+
+    @Inject
+    public STTIndex(@STTFile File sttFile) {
+        this.sttFile = Objects.requireNonNull(sttFile);
+        this.indexFile = new File(sttFile.getPath() + ".idx");
+    }
+
+    /**
+     * @return a reader returning the items of the activities file, either from the index or by parsing the file
+     * with the given parallel threshold (see {@link MappedSTTItemReader})
+     */
+    public ItemReader reader(long parallelThreshold) {
+        try {
+            FileHeader header = FileHeader.of(sttFile);
+            Optional<Snapshot> snapshot = readIndex(header);
+            if (snapshot.isPresent()) {
+                return new IndexReader(snapshot.get());
+            }
+            return new IndexingReader(new MappedSTTItemReader(sttFile, parallelThreshold), header);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Must be called while holding the {@link STTFileLock}, before modifying the activities file.
+     *
+     * @return the index, if it's up to date
+     */
+    Optional<Snapshot> snapshot() {
+        if (!sttFile.exists()) {
+            return Optional.empty();
+        }
+        try {
+            return readIndex(FileHeader.of(sttFile));
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Couldn't check index " + indexFile, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Updates the index after the activities file was rewritten from the given offset on, while still holding the
+     * {@link STTFileLock}. Only the lines from the offset on are parsed.
+     *
+     * @param before the index taken by {@link #snapshot()} before the modification
+     */
+    void update(Snapshot before, long offset) {
+        try {
+            int kept = before.countItemsBefore(offset);
+            Map<String, Integer> activityIds = new LinkedHashMap<>();
+            for (String activity : before.activities) {
+                activityIds.put(activity, activityIds.size());
+            }
+            ByteArrayOutputStream records = new ByteArrayOutputStream((kept + 16) * ITEM_BYTES);
+            records.write(before.records.array(), before.records.arrayOffset(), kept * ITEM_BYTES);
+            int items = kept;
+            byte[] tail = readFrom(offset);
+            STTItemConverter converter = new STTItemConverter();
+            try (DataOutputStream out = new DataOutputStream(records)) {
+                int lineStart = 0;
+                while (lineStart < tail.length) {
+                    // Line breaks like MappedSTTItemReader, so the offsets match
+                    int lineEnd = lineStart;
+                    while (lineEnd < tail.length && tail[lineEnd] != '\n' && tail[lineEnd] != '\r') {
+                        lineEnd++;
+                    }
+                    String line = new String(tail, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                    if (!line.trim().isEmpty()) {
+                        TimeTrackingItem item = converter.lineToTimeTrackingItem(line);
+                        Integer activityId = activityIds.putIfAbsent(item.getActivity(), activityIds.size());
+                        writeItem(out, item, activityId == null ? activityIds.size() - 1 : activityId,
+                                offset + lineStart);
+                        items++;
+                    }
+                    lineStart = lineEnd < tail.length - 1 && tail[lineEnd] == '\r' && tail[lineEnd + 1] == '\n'
+                            ? lineEnd + 2 : lineEnd + 1;
+                }
+            }
+            writeIndex(FileHeader.of(sttFile), activityIds.keySet(), items, records.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Couldn't update index " + indexFile + ", it gets rebuilt on the next read", e);
+            try {
+                Files.deleteIfExists(indexFile.toPath());
+            } catch (IOException deleteFailed) {
+                LOG.log(Level.WARNING, "Couldn't delete " + indexFile, deleteFailed);
+            }
+        }
+    }
+
+    private byte[] readFrom(long offset) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(sttFile, "r")) {
+            byte[] content = new byte[(int) (in.length() - offset)];
+            in.seek(offset);
+            in.readFully(content);
+            return content;
+        }
+    }
+
+    private Optional<Snapshot> readIndex(FileHeader expectedHeader) {
+        if (!indexFile.exists()) {
+            return Optional.empty();
+        }
+        try {
+            // Not mapped, that would keep the index from being replaced on some platforms
+            byte[] content = Files.readAllBytes(indexFile.toPath());
+            if (content.length < CHECKSUM_BYTES || checksumOf(content, content.length - CHECKSUM_BYTES)
+                    != ByteBuffer.wrap(content, content.length - CHECKSUM_BYTES, CHECKSUM_BYTES).getLong()) {
+                LOG.warning("Ignoring corrupt index " + indexFile);
+                return Optional.empty();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(content, 0, content.length - CHECKSUM_BYTES);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || !expectedHeader.equals(new FileHeader(buffer.getLong(), buffer.getLong(), buffer.getLong()))) {
+                LOG.fine("Index is stale");
+                return Optional.empty();
+            }
+            String[] activities = new String[buffer.getInt()];
+            for (int i = 0; i < activities.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                activities[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int items = buffer.getInt();
+            if (items < 0 || buffer.remaining() != (long) items * ITEM_BYTES) {
+                throw new IOException("Expected " + items + " items, but found " + buffer.remaining() + " bytes");
+            }
+            for (int i = 0; i < items; i++) {
+                int activityId = buffer.getInt(buffer.position() + i * ITEM_BYTES + 16);
+                if (activityId < 0 || activityId >= activities.length) {
+                    throw new IOException("Unknown activity " + activityId);
+                }
+            }
+            return Optional.of(new Snapshot(activities, buffer.slice(), items));
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Ignoring unreadable index " + indexFile, e);
+            return Optional.empty();
+        }
+    }
+
+    private static long checksumOf(byte[] content, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, length);
+        return crc.getValue();
+    }
+
+    private void writeIndex(FileHeader header, List<TimeTrackingItem> items, int[] offsets) {
+        try {
+            Map<String, Integer> activityIds = new LinkedHashMap<>();
+            for (TimeTrackingItem item : items) {
+                activityIds.putIfAbsent(item.getActivity(), activityIds.size());
+            }
+            ByteArrayOutputStream records = new ByteArrayOutputStream(items.size() * ITEM_BYTES);
+            try (DataOutputStream out = new DataOutputStream(records)) {
+                for (int i = 0; i < items.size(); i++) {
+                    TimeTrackingItem item = items.get(i);
+                    writeItem(out, item, activityIds.get(item.getActivity()), offsets[i]);
+                }
+            }
+            writeIndex(header, activityIds.keySet(), items.size(), records.toByteArray());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write index " + indexFile, e);
+        }
+    }
+
+    private static void writeItem(DataOutputStream out, TimeTrackingItem item, int activityId, long offset)
+            throws IOException {
+        out.writeLong(item.getStart().toEpochSecond(ZoneOffset.UTC));
+        out.writeLong(item.getEnd().map(end -> end.toEpochSecond(ZoneOffset.UTC)).orElse(NO_END));
+        out.writeInt(activityId);
+        out.writeLong(offset);
+    }
+
+    private void writeIndex(FileHeader header, Collection<String> activities, int items, byte[] records)
+            throws IOException {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        ByteArrayOutputStream content = new ByteArrayOutputStream(64 + records.length);
+        try (DataOutputStream out = new DataOutputStream(content)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(header.length);
+            out.writeLong(header.lastModified);
+            out.writeLong(header.checksum);
+            out.writeInt(activities.size());
+            for (String activity : activities) {
+                byte[] bytes = activity.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(items);
+            out.write(records);
+            out.writeLong(checksumOf(content.toByteArray(), content.size()));
+        }
+        Files.write(tempFile.toPath(), content.toByteArray());
+        Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static class FileHeader {
+        private final long length;
+        private final long lastModified;
+        private final long checksum;
+
+        FileHeader(long length, long lastModified, long checksum) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+
+        static FileHeader of(File file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                CRC32 crc = new CRC32();
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TAIL_BYTES, size));
+                long position = size - buffer.capacity();
+                while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                    // Read the whole tail
+                }
+                crc.update(buffer.array(), 0, buffer.position());
+                return new FileHeader(size, file.lastModified(), crc.getValue());
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileHeader that = (FileHeader) o;
+            return length == that.length && lastModified == that.lastModified && checksum == that.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(length, lastModified, checksum);
+        }
+    }
+
+    /**
+     * Content of a valid index.
+     */
+    static class Snapshot {
+        private final String[] activities;
+        private final ByteBuffer records;
+        private final int items;
+
+        Snapshot(String[] activities, ByteBuffer records, int items) {
+            this.activities = activities;
+            this.records = records;
+            this.items = items;
+        }
+
+        /**
+         * Items are sorted by offset.
+         */
+        int countItemsBefore(long offset) {
+            int low = 0;
+            int high = items;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (records.getLong(mid * ITEM_BYTES + 20) < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static class IndexReader implements ItemReader {
+        private final ByteBuffer buffer;
+        private final String[] activities;
+        private int remaining;
+
+        IndexReader(Snapshot snapshot) {
+            this.buffer = snapshot.records.duplicate();
+            this.activities = snapshot.activities;
+            this.remaining = snapshot.items;
+        }
+
+        @Override
+        public Optional<TimeTrackingItem> read() {
+            if (remaining <= 0) {
+                return Optional.empty();
+            }
+            remaining--;
+            LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+            long end = buffer.getLong();
+            String activity = activities[buffer.getInt()];
+            buffer.getLong();
+            if (end == NO_END) {
+                return Optional.of(new TimeTrackingItem(activity, start));
+            }
+            return Optional.of(new TimeTrackingItem(activity, start, LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC)));
+        }
+
+        @Override
+        public void close() {
+            remaining = 0;
+        }
+    }
+
+    /**
+     * Writes the index once the whole activities file has been read.
+     */
+    private class IndexingReader implements ItemReader {
+        private final MappedSTTItemReader reader;
+        private final FileHeader header;
+        private final List<TimeTrackingItem> items = new ArrayList<>();
+        private int[] offsets = new int[1024];
+
+        IndexingReader(MappedSTTItemReader reader, FileHeader header) {
+            this.reader = reader;
+            this.header = header;
+        }
+
+        @Override
+        public Optional<TimeTrackingItem> read() {
+            Optional<TimeTrackingItem> item = reader.read();
+            if (item.isPresent()) {
+                if (items.size() == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[items.size()] = reader.getOffsetOfLastItem();
+                items.add(item.get());
+            } else if (offsets != null) {
+                writeIndex(header, items, offsets);
+                offsets = null;
+                items.clear();
+            }
+            return item;
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
+}
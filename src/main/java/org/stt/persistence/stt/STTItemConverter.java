@@ -2,19 +2,31 @@ package org.stt.persistence.stt;
 
 import org.stt.model.TimeTrackingItem;
 
-import java.time.LocalDateTime;
-
+/**
+ * Converts between items and lines of the stt format.
+ * <p>
+ * Not thread safe, since it keeps the last parsed date and the activities seen so far. Each reader, writer or call
+ * uses its own instance.
+ * </p>
+ */
 class STTItemConverter {
+    private final ActivityDictionary activities = new ActivityDictionary();
+    private final STTDateTimeCodec dateTimes = new STTDateTimeCodec();
+
     TimeTrackingItem lineToTimeTrackingItem(String line) {
-        LocalDateTime start = parseDate(line.substring(0, 19));
-        LocalDateTime end = line.length() >= 39 ? parseDate(line.substring(20, 39)) : null;
-        int activityStart = end == null ? 20 : 40;
+        long start = dateTimes.parse(line, 0);
+        if (start == STTDateTimeCodec.INVALID) {
+            throw new IllegalStateException("Invalid line: " + line);
+        }
+        long end = line.length() > STTDateTimeCodec.LENGTH ? dateTimes.parse(line, STTDateTimeCodec.LENGTH + 1)
+                : STTDateTimeCodec.INVALID;
+        int activityStart = end == STTDateTimeCodec.INVALID ? 20 : 40;
         String activity = line.length() > activityStart ?
                 unescape(line.substring(activityStart)) : "";
-        if (end != null) {
-            return new TimeTrackingItem(activity, start, end);
+        if (end != STTDateTimeCodec.INVALID) {
+            return new TimeTrackingItem(activity, dateTimes.toLocalDateTime(start), dateTimes.toLocalDateTime(end));
         }
-        return new TimeTrackingItem(activity, start);
+        return new TimeTrackingItem(activity, dateTimes.toLocalDateTime(start));
     }
 
     private String unescape(String activity) {
@@ -36,51 +48,17 @@ class STTItemConverter {
             }
             i++;
         }
-        return b.toString();
-    }
-
-    private LocalDateTime parseDate(String from) {
-        char[] chars = from.toCharArray();
-        if (chars[0] < '0' || chars[0] > '9'
-                || chars[1] < '0' || chars[1] > '9'
-                || chars[2] < '0' || chars[2] > '9'
-                || chars[3] < '0' || chars[3] > '9'
-                || chars[4] != '-'
-                || chars[5] < '0' || chars[5] > '9'
-                || chars[6] < '0' || chars[6] > '9'
-                || chars[7] != '-'
-                || chars[8] < '0' || chars[8] > '9'
-                || chars[9] < '0' || chars[9] > '9'
-                || chars[10] != '_'
-                || chars[11] < '0' || chars[11] > '9'
-                || chars[12] < '0' || chars[12] > '9'
-                || chars[13] != ':'
-                || chars[14] < '0' || chars[14] > '9'
-                || chars[15] < '0' || chars[15] > '9'
-                || chars[16] != ':'
-                || chars[17] < '0' || chars[17] > '9'
-                || chars[18] < '0' || chars[18] > '9') {
-            return null;
-        }
-        int y = (chars[0] - '0') * 1000 + (chars[1] - '0') * 100 + (chars[2] - '0') * 10 + (chars[3] - '0');
-        int mo = (chars[5] - '0') * 10 + (chars[6] - '0');
-        int d = (chars[8] - '0') * 10 + (chars[9] - '0');
-        int h = (chars[11] - '0') * 10 + (chars[12] - '0');
-        int mi = (chars[14] - '0') * 10 + (chars[15] - '0');
-        int s = (chars[17] - '0') * 10 + (chars[18] - '0');
-        return LocalDateTime.of(y, mo, d, h, mi, s);
+        return activities.get(b.toString());
     }
 
     String timeTrackingItemToLine(TimeTrackingItem item) {
         StringBuilder builder = new StringBuilder(80);
-        LocalDateTime start = item.getStart();
-        appendDateTime(builder, start);
+        dateTimes.append(builder, STTDateTimeCodec.toEpochSecond(item.getStart()));
         builder.append(' ');
-        item.getEnd()
-                .ifPresent(endDateTime -> {
-                    appendDateTime(builder, endDateTime);
-                    builder.append(' ');
-                });
+        if (item.getEnd().isPresent()) {
+            dateTimes.append(builder, STTDateTimeCodec.toEpochSecond(item.getEnd().get()));
+            builder.append(' ');
+        }
 
         escape(builder, item.getActivity());
         return builder.toString();
@@ -107,32 +85,4 @@ class STTItemConverter {
             i++;
         }
     }
-
-    private void appendDateTime(StringBuilder b, LocalDateTime dt) {
-        int y = dt.getYear();
-        int mo = dt.getMonthValue();
-        int d = dt.getDayOfMonth();
-        int h = dt.getHour();
-        int mi = dt.getMinute();
-        int s = dt.getSecond();
-        b.append((char) (y / 1000 % 10 + '0'));
-        b.append((char) (y / 100 % 10 + '0'));
-        b.append((char) (y / 10 % 10 + '0'));
-        b.append((char) (y % 10 + '0'));
-        b.append('-');
-        b.append((char) (mo / 10 % 10 + '0'));
-        b.append((char) (mo % 10 + '0'));
-        b.append('-');
-        b.append((char) (d / 10 % 10 + '0'));
-        b.append((char) (d % 10 + '0'));
-        b.append('_');
-        b.append((char) (h / 10 % 10 + '0'));
-        b.append((char) (h % 10 + '0'));
-        b.append(':');
-        b.append((char) (mi / 10 % 10 + '0'));
-        b.append((char) (mi % 10 + '0'));
-        b.append(':');
-        b.append((char) (s / 10 % 10 + '0'));
-        b.append((char) (s % 10 + '0'));
-    }
 }
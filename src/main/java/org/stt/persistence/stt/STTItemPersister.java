@@ -1,6 +1,8 @@
 package org.stt.persistence.stt;
 
 import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.InsertHelper;
+import org.stt.persistence.ItemLists;
 import org.stt.persistence.ItemPersister;
 import org.stt.persistence.ItemReader;
 import org.stt.persistence.ItemWriter;
@@ -19,13 +21,61 @@ import java.util.*;
 @Singleton
 public class STTItemPersister implements ItemPersister {
 
-    private final STTItemConverter converter = new STTItemConverter();
+    private final File sttFile;
+    private final STTFileLock fileLock;
+    private final AtomicFileReplacer replacer;
+    private final STTIndex index;
     private Provider<Reader> readerProvider;
     private Provider<Writer> writerProvider;
 
+    public STTItemPersister(Provider<Reader> readerProvider,
+                            Provider<Writer> writerProvider) {
+        this(null, readerProvider, writerProvider);
+    }
+
+    /**
+     * @param sttFile if given, inserts near the end of the file only rewrite the affected tail of the file and all
+     *                modifications are done while holding the {@link STTFileLock}
+     */
+    public STTItemPersister(File sttFile,
+                            Provider<Reader> readerProvider,
+                            Provider<Writer> writerProvider) {
+        this(sttFile, sttFile == null ? null : new STTFileLock(sttFile), readerProvider, writerProvider);
+    }
+
+    public STTItemPersister(File sttFile,
+                            STTFileLock fileLock,
+                            Provider<Reader> readerProvider,
+                            Provider<Writer> writerProvider) {
+        this(sttFile, fileLock, sttFile == null ? null : new AtomicFileReplacer(sttFile), readerProvider,
+                writerProvider);
+    }
+
+    /**
+     * @param replacer if given together with the sttFile, deletes and renames stream the file instead of parsing it
+     */
     @Inject
-    public STTItemPersister(@STTFile Provider<Reader> readerProvider,
+    public STTItemPersister(@STTFile File sttFile,
+                            STTFileLock fileLock,
+                            AtomicFileReplacer replacer,
+                            @STTFile Provider<Reader> readerProvider,
                             @STTFile Provider<Writer> writerProvider) {
+        this(sttFile, fileLock, replacer, null, readerProvider, writerProvider);
+    }
+
+    /**
+     * @param index if given, gets updated by inserts near the end of the file
+     */
+    public STTItemPersister(File sttFile,
+                            STTFileLock fileLock,
+                            AtomicFileReplacer replacer,
+                            STTIndex index,
+                            Provider<Reader> readerProvider,
+                            Provider<Writer> writerProvider) {
+        this.sttFile = sttFile;
+        this.fileLock = fileLock;
+        this.replacer = replacer;
+        this.index = index;
         this.readerProvider = Objects.requireNonNull(readerProvider);
         this.writerProvider = Objects.requireNonNull(writerProvider);
     }
@@ -33,6 +83,39 @@ public class STTItemPersister implements ItemPersister {
     @Override
     public void persist(TimeTrackingItem itemToInsert) {
         Objects.requireNonNull(itemToInsert);
+        runLocked(() -> {
+            if (!tryTailInsert(null, itemToInsert)) {
+                rewriteWithInsert(itemToInsert);
+            }
+        });
+    }
+
+    private void runLocked(Runnable modification) {
+        if (fileLock == null) {
+            modification.run();
+        } else {
+            fileLock.runLocked(modification);
+        }
+    }
+
+    private boolean tryTailInsert(TimeTrackingItem itemToDelete, TimeTrackingItem itemToInsert) {
+        if (sttFile == null) {
+            return false;
+        }
+        try {
+            Optional<STTIndex.Snapshot> indexBefore = index == null ? Optional.empty() : index.snapshot();
+            TailInsertHelper tailInsertHelper = new TailInsertHelper(sttFile, replacer, itemToDelete, itemToInsert);
+            if (!tailInsertHelper.performInsert()) {
+                return false;
+            }
+            indexBefore.ifPresent(snapshot -> index.update(snapshot, tailInsertHelper.getRewrittenFrom()));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rewriteWithInsert(TimeTrackingItem itemToInsert) {
         StringWriter stringWriter = new StringWriter();
         Reader providedReader;
         providedReader = readerProvider.get();
@@ -47,16 +130,32 @@ public class STTItemPersister implements ItemPersister {
 
     @Override
     public void replace(TimeTrackingItem item, TimeTrackingItem with) {
-        delete(item);
-        persist(with);
+        Objects.requireNonNull(item);
+        Objects.requireNonNull(with);
+        runLocked(() -> {
+            if (tryTailInsert(item, with)) {
+                return;
+            }
+            List<Change> changes = new Batch().replace(item, with).getChanges();
+            if (canStream(changes)) {
+                streamChanges(changes);
+            } else {
+                deleteLine(new STTItemConverter().timeTrackingItemToLine(item));
+                rewriteWithInsert(with);
+            }
+        });
     }
 
     @Override
     public void delete(TimeTrackingItem item) {
+        Objects.requireNonNull(item);
+        runLocked(() -> applyChanges(new Batch().delete(item).getChanges()));
+    }
+
+    private void deleteLine(String lineOfItemToDelete) {
         try (BufferedReader reader = new BufferedReader(readerProvider.get())) {
             StringWriter stringWriter = new StringWriter();
             PrintWriter printWriter = new PrintWriter(stringWriter);
-            String lineOfItemToDelete = converter.timeTrackingItemToLine(item);
             String currentLine;
             while ((currentLine = reader.readLine()) != null) {
                 // only persist lines which should not be deleted
@@ -72,25 +171,100 @@ public class STTItemPersister implements ItemPersister {
         }
     }
 
+    /**
+     * Single changes take the same path as the corresponding methods. Batches of only deletes and replaces keeping
+     * start and end, like the renames of {@link #updateActivitities(Collection, String)}, are applied in one
+     * streaming pass over the file. Other batches read the file once, apply all changes in memory and rewrite the file
+     * once.
+     */
     @Override
-    public Collection<UpdatedItem> updateActivitities(Collection<TimeTrackingItem> itemsToUpdate, String newActivity) {
-        try (ItemReader in = new STTItemReader(readerProvider.get());
-             StringWriter sw = new StringWriter();
-             ItemWriter out = new STTItemWriter(sw)) {
-            Set<TimeTrackingItem> matchingItems = new HashSet<>(itemsToUpdate);
-            List<UpdatedItem> updatedItems = new ArrayList<>();
-            Optional<TimeTrackingItem> oItem;
-            while ((oItem = in.read()).isPresent()) {
-                TimeTrackingItem item = oItem.get();
-                if (matchingItems.contains(item)) {
-                    TimeTrackingItem updateItem = item.withActivity(newActivity);
-                    updatedItems.add(new UpdatedItem(item, updateItem));
-                    item = updateItem;
-                }
+    public void apply(Batch batch) {
+        Objects.requireNonNull(batch);
+        runLocked(() -> applyChanges(batch.getChanges()));
+    }
+
+    private void applyChanges(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (canStream(changes)) {
+            streamChanges(changes);
+            return;
+        }
+        if (changes.size() == 1) {
+            Change change = changes.get(0);
+            if (change.itemToDelete == null) {
+                persist(change.itemToInsert);
+            } else if (change.itemToInsert == null) {
+                deleteLine(new STTItemConverter().timeTrackingItemToLine(change.itemToDelete));
+            } else {
+                replace(change.itemToDelete, change.itemToInsert);
+            }
+            return;
+        }
+        List<TimeTrackingItem> items = new ArrayList<>();
+        try (ItemReader in = new STTItemReader(readerProvider.get())) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        for (Change change : changes) {
+            if (change.itemToDelete != null) {
+                ItemLists.delete(items, change.itemToDelete);
+            }
+            if (change.itemToInsert != null) {
+                ItemLists.insert(items, change.itemToInsert);
+            }
+        }
+        StringWriter stringWriter = new StringWriter();
+        try (ItemWriter out = new STTItemWriter(stringWriter)) {
+            for (TimeTrackingItem item : items) {
                 out.write(item);
             }
-            rewriteFileWith(sw.toString());
-            return updatedItems;
+            rewriteFileWith(stringWriter.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean canStream(List<Change> changes) {
+        if (sttFile == null || replacer == null || !sttFile.exists()) {
+            return false;
+        }
+        for (Change change : changes) {
+            if (change.itemToDelete == null || change.itemToInsert != null
+                    && (!change.itemToInsert.getStart().equals(change.itemToDelete.getStart())
+                    || !change.itemToInsert.getEnd().equals(change.itemToDelete.getEnd()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A replaced item which wasn't found still gets inserted, like {@link #replace(TimeTrackingItem, TimeTrackingItem)}
+     * does.
+     */
+    private void streamChanges(List<Change> changes) {
+        StreamingLineReplacer lineReplacer = new StreamingLineReplacer(sttFile, replacer);
+        STTItemConverter converter = new STTItemConverter();
+        Map<String, TimeTrackingItem> insertsByLine = new HashMap<>();
+        for (Change change : changes) {
+            String line = converter.timeTrackingItemToLine(change.itemToDelete);
+            lineReplacer.replace(line,
+                    change.itemToInsert == null ? null : converter.timeTrackingItemToLine(change.itemToInsert));
+            if (change.itemToInsert != null) {
+                insertsByLine.put(line, change.itemToInsert);
+            }
+        }
+        try {
+            for (String notFound : lineReplacer.rewrite()) {
+                TimeTrackingItem itemToInsert = insertsByLine.get(notFound);
+                if (itemToInsert != null) {
+                    rewriteWithInsert(itemToInsert);
+                }
+            }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
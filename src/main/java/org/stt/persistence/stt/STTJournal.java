@@ -0,0 +1,244 @@
+package org.stt.persistence.stt;
+
+import org.stt.Service;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.ItemWriter;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of modifications next to the .stt file. Each record is one line, prefixed with the operation:
+ * <ul>
+ * <li>"+ " followed by the item line: insert</li>
+ * <li>"- " followed by the item line: delete</li>
+ * <li>"~ " followed by the old item line and "&gt; " followed by the new item line: replace</li>
+ * </ul>
+ * Replaying the journal is idempotent, so a crash between writing the compacted .stt file and removing the journal
+ * does no harm.
+ */
+@Singleton
+public class STTJournal implements Service {
+    private static final Logger LOG = Logger.getLogger(STTJournal.class.getName());
+    private static final String INSERT = "+ ";
+    private static final String DELETE = "- ";
+    private static final String REPLACE = "~ ";
+    private static final String REPLACE_WITH = "> ";
+
+    // Only used while holding the monitor of the journal
+    private final File journalFile;
+    private final Provider<Reader> readerProvider;
+    private final Provider<Writer> writerProvider;
+    private final STTFileLock fileLock;
+    private final Executor compactionExecutor = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), STTJournal::newCompactionThread);
+    private volatile Future<?> pendingCompaction;
+    private int records = -1;
+
+    public STTJournal(File sttFile,
+                      Provider<Reader> readerProvider,
+                      Provider<Writer> writerProvider) {
+        this(sttFile, new STTFileLock(sttFile), readerProvider, writerProvider);
+    }
+
+    @Inject
+    public STTJournal(@STTFile File sttFile,
+                      STTFileLock fileLock,
+                      @STTFile Provider<Reader> readerProvider,
+                      @STTFile Provider<Writer> writerProvider) {
+        this.journalFile = new File(sttFile.getPath() + ".journal");
+        this.fileLock = Objects.requireNonNull(fileLock);
+        this.readerProvider = Objects.requireNonNull(readerProvider);
+        this.writerProvider = Objects.requireNonNull(writerProvider);
+    }
+
+    private static Thread newCompactionThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "STT journal compaction");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public void start() {
+        // Nothing to do, pending records are applied by every reader
+    }
+
+    @Override
+    public void stop() {
+        compact();
+    }
+
+    synchronized void appendInsert(TimeTrackingItem item) {
+        append(INSERT + new STTItemConverter().timeTrackingItemToLine(item) + '\n');
+    }
+
+    synchronized void appendDelete(TimeTrackingItem item) {
+        append(DELETE + new STTItemConverter().timeTrackingItemToLine(item) + '\n');
+    }
+
+    synchronized void appendReplace(TimeTrackingItem item, TimeTrackingItem with) {
+        STTItemConverter converter = new STTItemConverter();
+        append(REPLACE + converter.timeTrackingItemToLine(item) + '\n'
+                + REPLACE_WITH + converter.timeTrackingItemToLine(with) + '\n');
+    }
+
+    /**
+     * @return the number of records not yet compacted into the .stt file
+     */
+    synchronized int size() {
+        if (records < 0) {
+            records = 0;
+            applyRecords(new ArrayList<>());
+        }
+        return records;
+    }
+
+    /**
+     * @return a reader returning the items of the given reader with all pending journal records applied
+     */
+    public synchronized ItemReader replayOnto(ItemReader reader) {
+        Objects.requireNonNull(reader);
+        if (journalFile.length() == 0) {
+            return reader;
+        }
+        List<TimeTrackingItem> items = new ArrayList<>();
+        try (ItemReader in = reader) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        return ItemLists.reader(applyRecords(items));
+    }
+
+    /**
+     * Folds all pending records into the .stt file and clears the journal.
+     */
+    public synchronized void compact() {
+        if (journalFile.length() == 0) {
+            return;
+        }
+        LOG.fine("Compacting journal");
+        fileLock.runLocked(() -> {
+            List<TimeTrackingItem> items = new ArrayList<>();
+            try (ItemReader in = replayOnto(new STTItemReader(readerProvider.get()))) {
+                Optional<TimeTrackingItem> item;
+                while ((item = in.read()).isPresent()) {
+                    items.add(item.get());
+                }
+            }
+            try (ItemWriter out = new STTItemWriter(writerProvider.get())) {
+                items.forEach(out::write);
+            }
+            if (!journalFile.delete()) {
+                throw new UncheckedIOException(new IOException("Couldn't delete " + journalFile.getAbsolutePath()));
+            }
+        });
+        records = 0;
+    }
+
+    /**
+     * Queues a {@link #compact()} on a background thread, unless one is queued already.
+     */
+    void compactInBackground() {
+        Future<?> compaction = pendingCompaction;
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Journal compaction failed", e);
+            }
+        }, null);
+        pendingCompaction = task;
+        compactionExecutor.execute(task);
+    }
+
+    /**
+     * Waits for a compaction queued by {@link #compactInBackground()} to finish.
+     */
+    public void awaitCompaction() {
+        Future<?> compaction = pendingCompaction;
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.log(Level.WARNING, "Journal compaction failed", e.getCause());
+        }
+    }
+
+    private void append(String record) {
+        fileLock.runLocked(() -> {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8)) {
+                out.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (records >= 0) {
+            records++;
+        }
+    }
+
+    private List<TimeTrackingItem> applyRecords(List<TimeTrackingItem> items) {
+        if (!journalFile.exists()) {
+            return items;
+        }
+        // A converter per replay, its activities are only shared by the items of this replay
+        STTItemConverter converter = new STTItemConverter();
+        int count = 0;
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            String replaced = null;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(REPLACE_WITH) && replaced != null) {
+                    ItemLists.delete(items, converter.lineToTimeTrackingItem(replaced));
+                    ItemLists.insert(items, parse(converter, line));
+                    count++;
+                    replaced = null;
+                    continue;
+                }
+                // A replace record without its second line is a torn write and gets ignored
+                replaced = null;
+                if (line.startsWith(INSERT)) {
+                    ItemLists.insert(items, parse(converter, line));
+                    count++;
+                } else if (line.startsWith(DELETE)) {
+                    ItemLists.delete(items, parse(converter, line));
+                    count++;
+                } else if (line.startsWith(REPLACE)) {
+                    replaced = line.substring(REPLACE.length());
+                } else if (!line.trim().isEmpty()) {
+                    LOG.warning("Skipping invalid journal record: " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        records = count;
+        return items;
+    }
+
+    private static TimeTrackingItem parse(STTItemConverter converter, String record) {
+        return converter.lineToTimeTrackingItem(record.substring(2));
+    }
+}
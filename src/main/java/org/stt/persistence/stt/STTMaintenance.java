@@ -0,0 +1,45 @@
+package org.stt.persistence.stt;
+
+import org.stt.Service;
+import org.stt.config.PersistenceConfig;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Brings the activities file into the shape the configured persistence expects, once per start: records left over
+ * from a journaled session get compacted unless the journal is still used, and the items get moved into the files of
+ * the configured partitioning. On shutdown, waits for a compaction of the journal running in the background.
+ */
+@Singleton
+public class STTMaintenance implements Service {
+    private final PersistenceConfig config;
+    private final STTJournal journal;
+    private final Provider<STTPartitions> partitions;
+
+    @Inject
+    public STTMaintenance(PersistenceConfig config, STTJournal journal, Provider<STTPartitions> partitions) {
+        this.config = requireNonNull(config);
+        this.journal = requireNonNull(journal);
+        this.partitions = requireNonNull(partitions);
+    }
+
+    @Override
+    public void start() {
+        if (config.isH2Format() || config.isBlockFormat()) {
+            return;
+        }
+        if (config.isPartitioned() || !config.isJournaled()) {
+            journal.compact();
+        }
+        partitions.get().migrateIfNeeded();
+    }
+
+    @Override
+    public void stop() {
+        journal.awaitCompaction();
+    }
+}
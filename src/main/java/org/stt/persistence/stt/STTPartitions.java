@@ -0,0 +1,217 @@
+package org.stt.persistence.stt;
+
+import org.stt.config.PersistenceConfig;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.ItemWriter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layout of the activities when partitioned by the start of the items: One file in the stt format per month or year
+ * next to the configured activities file, named like it with the month or year appended, e.g. "activities-2017-05".
+ * <p>
+ * Partitions hold consecutive ranges of items, so reading them in the order of their names returns all items
+ * ordered by start. Concatenating them restores the unpartitioned activities file.
+ * </p>
+ * <p>
+ * When the partitioning gets changed, {@link #migrateIfNeeded()} moves the items into the files of the configured
+ * partitioning, including back into the activities file if it is "none".
+ * </p>
+ */
+@Singleton
+public class STTPartitions {
+    private static final Logger LOG = Logger.getLogger(STTPartitions.class.getSimpleName());
+
+    private final File sttFile;
+    private final STTFileLock fileLock;
+    private final boolean partitioned;
+    private final DateTimeFormatter keyFormat;
+    private final Pattern namePattern;
+    private final Pattern anyPartitioningNamePattern;
+    private boolean migrationChecked;
+
+    @Inject
+    public STTPartitions(@STTFile File sttFile, STTFileLock fileLock, PersistenceConfig config) {
+        this.sttFile = requireNonNull(sttFile);
+        this.fileLock = requireNonNull(fileLock);
+        this.partitioned = config.isPartitioned();
+        boolean byYear = "year".equals(config.getPartitioning());
+        this.keyFormat = DateTimeFormatter.ofPattern(byYear ? "yyyy" : "yyyy-MM");
+        this.namePattern = Pattern.compile(Pattern.quote(sttFile.getName())
+                + (byYear ? "-[0-9]{4}" : "-[0-9]{4}-[0-9]{2}"));
+        this.anyPartitioningNamePattern = Pattern.compile(Pattern.quote(sttFile.getName()) + "-[0-9]{4}(-[0-9]{2})?");
+    }
+
+    /**
+     * @return the key of the partition the item starting at the given time belongs to, keys sort like the partitions
+     */
+    String keyOf(LocalDateTime start) {
+        return keyFormat.format(start);
+    }
+
+    File fileOf(String key) {
+        return new File(sttFile.getAbsoluteFile().getParentFile(), sttFile.getName() + "-" + key);
+    }
+
+    /**
+     * @return the keys of all existing partitions, oldest first
+     */
+    NavigableSet<String> keys() {
+        NavigableSet<String> keys = new TreeSet<>();
+        for (File file : filesMatching(namePattern)) {
+            keys.add(file.getName().substring(sttFile.getName().length() + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * @return the existing partitions of the configured partitioning, oldest first
+     */
+    public List<File> files() {
+        List<File> files = new ArrayList<>();
+        for (String key : keys()) {
+            files.add(fileOf(key));
+        }
+        return files;
+    }
+
+    /**
+     * @return if the given name is the one of a partition of the configured partitioning
+     */
+    public boolean isPartitionName(String name) {
+        return namePattern.matcher(name).matches();
+    }
+
+    private List<File> filesMatching(Pattern pattern) {
+        File[] files = sttFile.getAbsoluteFile().getParentFile()
+                .listFiles((directory, name) -> pattern.matcher(name).matches());
+        return files == null ? Collections.emptyList() : Arrays.asList(files);
+    }
+
+    /**
+     * @return a reader returning the items of all partitions ordered by start
+     */
+    public ItemReader reader() {
+        return new PartitionedItemReader(files());
+    }
+
+    /**
+     * Writes the items of one partition, deleting it if there are none.
+     */
+    void write(String key, List<TimeTrackingItem> items) throws IOException {
+        File file = fileOf(key);
+        if (items.isEmpty()) {
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+        StringWriter content = new StringWriter();
+        try (ItemWriter out = new STTItemWriter(content)) {
+            items.forEach(out::write);
+        }
+        new AtomicFileReplacer(file).replaceWith(content.getBuffer());
+    }
+
+    /**
+     * Moves all items into the files of the configured partitioning: The unpartitioned activities file gets split
+     * into partitions, partitions of another partitioning get split anew or, without partitioning, merged back into
+     * the activities file. Replaced files are kept with the suffix ".before-partitioning" or
+     * ".before-repartitioning". Items found in several files, e.g. after a crash during a previous migration, are
+     * merged like inserts.
+     */
+    public synchronized void migrateIfNeeded() {
+        if (migrationChecked) {
+            return;
+        }
+        migrationChecked = true;
+        fileLock.runLocked(() -> {
+            try {
+                migrate();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void migrate() throws IOException {
+        List<File> otherPartitions = new ArrayList<>();
+        for (File file : filesMatching(anyPartitioningNamePattern)) {
+            if (!partitioned || !isPartitionName(file.getName())) {
+                otherPartitions.add(file);
+            }
+        }
+        boolean splitSttFile = partitioned && sttFile.length() > 0;
+        if (otherPartitions.isEmpty() && !splitSttFile) {
+            return;
+        }
+        List<File> sources = new ArrayList<>(otherPartitions);
+        if (partitioned) {
+            sources.addAll(files());
+        }
+        if (sttFile.length() > 0) {
+            sources.add(sttFile);
+        }
+        LOG.info(() -> "Moving items of " + sources + " into " + (partitioned ? "partitions" : sttFile));
+        List<TimeTrackingItem> items = readMerged(sources);
+        if (partitioned) {
+            Map<String, List<TimeTrackingItem>> partitions = new TreeMap<>();
+            for (String key : keys()) {
+                partitions.put(key, new ArrayList<>());
+            }
+            for (TimeTrackingItem item : items) {
+                partitions.computeIfAbsent(keyOf(item.getStart()), key -> new ArrayList<>()).add(item);
+            }
+            for (Map.Entry<String, List<TimeTrackingItem>> partition : partitions.entrySet()) {
+                write(partition.getKey(), partition.getValue());
+            }
+        } else {
+            StringWriter content = new StringWriter();
+            try (ItemWriter out = new STTItemWriter(content)) {
+                items.forEach(out::write);
+            }
+            new AtomicFileReplacer(sttFile).replaceWith(content.getBuffer());
+        }
+        for (File otherPartition : otherPartitions) {
+            Files.move(otherPartition.toPath(), new File(otherPartition.getPath() + ".before-repartitioning").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (splitSttFile) {
+            Files.move(sttFile.toPath(), new File(sttFile.getPath() + ".before-partitioning").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.createFile(sttFile.toPath());
+        }
+    }
+
+    private List<TimeTrackingItem> readMerged(List<File> files) {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        for (File file : files) {
+            try (ItemReader in = new MappedSTTItemReader(file)) {
+                Optional<TimeTrackingItem> item;
+                while ((item = in.read()).isPresent()) {
+                    items.add(item.get());
+                }
+            }
+        }
+        items.sort(Comparator.comparing(TimeTrackingItem::getStart));
+        List<TimeTrackingItem> merged = new ArrayList<>(items.size());
+        for (TimeTrackingItem item : items) {
+            ItemLists.insert(merged, item);
+        }
+        return merged;
+    }
+}
@@ -1,12 +1,20 @@
 package org.stt.persistence.stt;
 
+import dagger.Binds;
 import dagger.BindsOptionalOf;
 import dagger.Module;
 import dagger.Provides;
 import net.engio.mbassy.bus.MBassador;
+import org.stt.config.PersistenceConfig;
+import org.stt.persistence.BackupSource;
 import org.stt.persistence.ItemPersister;
 import org.stt.persistence.ItemReader;
 import org.stt.persistence.ItemWriter;
+import org.stt.persistence.blocks.BlockItemPersister;
+import org.stt.persistence.blocks.BlockItemReader;
+import org.stt.persistence.blocks.BlockItemWriter;
+import org.stt.persistence.h2.H2Database;
+import org.stt.persistence.h2.H2ItemPersister;
 
 import javax.inject.Provider;
 import java.io.*;
@@ -18,23 +26,75 @@ public abstract class STTPersistenceModule { // NOSONAR Dagger requirement
     }
 
     @Provides
-    static ItemReader provideItemReader(@STTFile Reader reader) {
-        return new STTItemReader(reader);
+    static ItemReader provideItemReader(@STTFile File sttFile, STTJournal journal, STTIndex index,
+                                        PersistenceConfig config, Provider<H2Database> database,
+                                        Provider<STTPartitions> partitions) {
+        if (config.isH2Format()) {
+            return database.get().reader();
+        }
+        if (config.isPartitioned()) {
+            return partitions.get().reader();
+        }
+        if (config.isBlockFormat()) {
+            try {
+                return new BlockItemReader(sttFile.exists() ? new FileInputStream(sttFile)
+                        : new ByteArrayInputStream(new byte[0]));
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long parallelThreshold = config.isParallelParsing() ? config.getParallelParsingMinFileSize() : Long.MAX_VALUE;
+        ItemReader reader = config.isSidecarIndex() ? index.reader(parallelThreshold)
+                : new MappedSTTItemReader(sttFile, parallelThreshold);
+        return journal.replayOnto(reader);
     }
 
     @Provides
-    static ItemWriter provideItemWriter(@STTFile Writer writer) {
-        return new STTItemWriter(writer);
+    static ItemWriter provideItemWriter(PersistenceConfig config, AtomicFileReplacer replacer,
+                                        Provider<H2Database> database) {
+        if (config.isH2Format()) {
+            return database.get().writer();
+        }
+        if (config.isBlockFormat()) {
+            return new BlockItemWriter(replacer.outputStream());
+        }
+        return new STTItemWriter(replacer.writer());
     }
 
     @Provides
-    static ItemPersister provideItemPersister(@STTFile Provider<Reader> readerProvider, @STTFile Provider<Writer> writerProvider) {
-        return new STTItemPersister(readerProvider, writerProvider);
+    static ItemPersister provideItemPersister(PersistenceConfig config,
+                                              STTJournal journal,
+                                              @STTFile File sttFile,
+                                              STTFileLock fileLock,
+                                              AtomicFileReplacer replacer,
+                                              STTIndex index,
+                                              Provider<H2Database> database,
+                                              Provider<STTPartitions> partitions,
+                                              @STTFile Provider<Reader> readerProvider,
+                                              @STTFile Provider<Writer> writerProvider) {
+        if (config.isH2Format()) {
+            return new H2ItemPersister(database.get(), fileLock);
+        }
+        if (config.isBlockFormat()) {
+            return new BlockItemPersister(sttFile, fileLock, replacer);
+        }
+        if (config.isPartitioned()) {
+            return new PartitionedItemPersister(partitions.get(), fileLock);
+        }
+        if (config.isJournaled()) {
+            return new JournalingItemPersister(journal, config);
+        }
+        // Records left over from a journaled session got compacted by STTMaintenance on start
+        return new STTItemPersister(sttFile, fileLock, replacer, config.isSidecarIndex() ? index : null,
+                readerProvider, writerProvider);
     }
 
     @BindsOptionalOf
     abstract MBassador<Object> optionalMBassador();
 
+    @Binds
+    abstract BackupSource bindBackupSource(STTBackupSource source);
+
     @Provides
     @STTFile
     static Reader provideReader(@STTFile File sttFile) {
@@ -50,14 +110,8 @@ public abstract class STTPersistenceModule { // NOSONAR Dagger requirement
 
     @Provides
     @STTFile
-    static Writer provideWriter(@STTFile File sttFile) {
-        FileOutputStream out;
-        try {
-            out = new FileOutputStream(sttFile, false);
-        } catch (FileNotFoundException e) {
-            throw new UncheckedIOException(e);
-        }
-        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    static Writer provideWriter(AtomicFileReplacer replacer) {
+        return replacer.writer();
     }
 
 }
@@ -0,0 +1,83 @@
+package org.stt.persistence.stt;
+
+import org.stt.config.PersistenceConfig;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The files holding the items in the configured format: The activities file and its journal, all partitions if
+ * partitioned, the activities file alone for "blocks" or the database file H2 places next to it for "h2". Used to
+ * notice modifications by other processes.
+ */
+@Singleton
+public class STTStoreFiles {
+    private final PersistenceConfig config;
+    private final File sttFile;
+    private final File journalFile;
+    private final File databaseFile;
+    private final Provider<STTPartitions> partitions;
+
+    @Inject
+    public STTStoreFiles(PersistenceConfig config, @STTFile File sttFile, Provider<STTPartitions> partitions) {
+        this.config = requireNonNull(config);
+        this.sttFile = requireNonNull(sttFile);
+        this.journalFile = new File(sttFile.getPath() + ".journal");
+        this.databaseFile = new File(sttFile.getPath() + ".mv.db");
+        this.partitions = requireNonNull(partitions);
+    }
+
+    /**
+     * @return the files, including the ones not existing yet except for partitions
+     */
+    public List<File> files() {
+        if (config.isH2Format()) {
+            return Collections.singletonList(databaseFile);
+        }
+        if (config.isBlockFormat()) {
+            return Collections.singletonList(sttFile);
+        }
+        List<File> files = new ArrayList<>();
+        files.add(sttFile);
+        files.add(journalFile);
+        if (config.isPartitioned()) {
+            files.addAll(partitions.get().files());
+        }
+        return files;
+    }
+
+    /**
+     * @return if a file with the given name next to the activities file is one of the {@link #files()}
+     */
+    public boolean isStoreFileName(String name) {
+        if (config.isH2Format()) {
+            return name.equals(databaseFile.getName());
+        }
+        if (config.isBlockFormat()) {
+            return name.equals(sttFile.getName());
+        }
+        return name.equals(sttFile.getName()) || name.equals(journalFile.getName())
+                || config.isPartitioned() && partitions.get().isPartitionName(name);
+    }
+
+    /**
+     * @return the length and modification time of each of the {@link #files()}, unchanged until one gets modified,
+     * created or deleted
+     */
+    public long[] state() {
+        List<File> files = files();
+        long[] state = new long[2 * files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            state[2 * i] = files.get(i).length();
+            state[2 * i + 1] = files.get(i).lastModified();
+        }
+        return state;
+    }
+}
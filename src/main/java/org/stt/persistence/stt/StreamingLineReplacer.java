@@ -0,0 +1,188 @@
+package org.stt.persistence.stt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Replaces or deletes lines of the activities file without decoding any other line.
+ * <p>
+ * Candidates are located by parsing only the start time at the beginning of each line and compared byte wise.
+ * All other lines are copied as they are using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+ * Line separators of replaced lines are kept.
+ * </p>
+ */
+class StreamingLineReplacer {
+    private static final int DATE_TIME_LENGTH = 19;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int[] DIGIT_POSITIONS = {0, 1, 2, 3, 5, 6, 8, 9, 11, 12, 14, 15, 17, 18};
+
+    private final File file;
+    private final AtomicFileReplacer replacer;
+    private final Map<Long, List<Replacement>> replacementsByStart = new HashMap<>();
+    private final List<Replacement> replacements = new ArrayList<>();
+    private long[] starts;
+    private FileChannel in;
+    private FileChannel out;
+    private long copiedUpTo;
+
+    StreamingLineReplacer(File file, AtomicFileReplacer replacer) {
+        this.file = Objects.requireNonNull(file);
+        this.replacer = Objects.requireNonNull(replacer);
+    }
+
+    /**
+     * @param replacement the new line or null to delete the line
+     */
+    void replace(String line, String replacement) {
+        byte[] lineBytes = line.getBytes(StandardCharsets.UTF_8);
+        Replacement toAdd = new Replacement(lineBytes,
+                replacement == null ? null : replacement.getBytes(StandardCharsets.UTF_8));
+        replacements.add(toAdd);
+        replacementsByStart.computeIfAbsent(startOf(lineBytes, 0, lineBytes.length), key -> new ArrayList<>())
+                .add(toAdd);
+    }
+
+    /**
+     * Rewrites the file with all replacements applied.
+     *
+     * @return the lines given to {@link #replace(String, String)} which were not found
+     */
+    List<String> rewrite() throws IOException {
+        starts = replacementsByStart.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            in = channel;
+            replacer.replaceWith(target -> {
+                out = target;
+                copiedUpTo = 0;
+                scanLines();
+                transfer(in.size());
+            });
+        } finally {
+            in = null;
+            out = null;
+        }
+        List<String> notFound = new ArrayList<>();
+        for (Replacement replacement : replacements) {
+            if (!replacement.found) {
+                notFound.add(new String(replacement.line, StandardCharsets.UTF_8));
+            }
+        }
+        return notFound;
+    }
+
+    private void scanLines() throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bufferStart = 0;
+        int filled = 0;
+        int lineStart = 0;
+        int scanned = 0;
+        while (true) {
+            if (filled == buffer.length) {
+                if (lineStart == 0) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                } else {
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                    bufferStart += lineStart;
+                    filled -= lineStart;
+                    scanned -= lineStart;
+                    lineStart = 0;
+                }
+            }
+            int read = in.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled), bufferStart + filled);
+            if (read < 0) {
+                break;
+            }
+            filled += read;
+            for (; scanned < filled; scanned++) {
+                if (buffer[scanned] == '\n') {
+                    handleLine(buffer, bufferStart, lineStart, scanned + 1);
+                    lineStart = scanned + 1;
+                }
+            }
+        }
+        if (lineStart < filled) {
+            handleLine(buffer, bufferStart, lineStart, filled);
+        }
+    }
+
+    private void handleLine(byte[] buffer, long bufferStart, int from, int to) throws IOException {
+        int contentEnd = to;
+        while (contentEnd > from && (buffer[contentEnd - 1] == '\n' || buffer[contentEnd - 1] == '\r')) {
+            contentEnd--;
+        }
+        long start = startOf(buffer, from, contentEnd);
+        if (start < 0 || Arrays.binarySearch(starts, start) < 0) {
+            return;
+        }
+        for (Replacement replacement : replacementsByStart.get(start)) {
+            if (replacement.matches(buffer, from, contentEnd)) {
+                replacement.found = true;
+                transfer(bufferStart + from);
+                if (replacement.with != null) {
+                    write(ByteBuffer.wrap(replacement.with));
+                    write(ByteBuffer.wrap(buffer, contentEnd, to - contentEnd));
+                }
+                copiedUpTo = bufferStart + to;
+                return;
+            }
+        }
+    }
+
+    private void transfer(long upTo) throws IOException {
+        while (copiedUpTo < upTo) {
+            copiedUpTo += in.transferTo(copiedUpTo, upTo - copiedUpTo, out);
+        }
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * @return the digits of the start time as one number, or -1 if the line doesn't start with a time
+     */
+    private static long startOf(byte[] line, int from, int to) {
+        if (to - from < DATE_TIME_LENGTH) {
+            return -1;
+        }
+        long start = 0;
+        for (int position : DIGIT_POSITIONS) {
+            int digit = line[from + position] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            start = start * 10 + digit;
+        }
+        return start;
+    }
+
+    private static class Replacement {
+        private final byte[] line;
+        private final byte[] with;
+        private boolean found;
+
+        Replacement(byte[] line, byte[] with) {
+            this.line = line;
+            this.with = with;
+        }
+
+        boolean matches(byte[] buffer, int from, int to) {
+            if (to - from != line.length) {
+                return false;
+            }
+            for (int i = 0; i < line.length; i++) {
+                if (buffer[from + i] != line[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.stt.persistence.stt;
+
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.InsertHelper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Inserts an item (optionally deleting another one first) by only rewriting the end of the file.
+ * <p>
+ * Items are sorted by start and don't overlap, so all items ending at or before the start of the item to insert
+ * form a prefix of the file which stays untouched. That prefix is found by seeking backwards from the end of the file.
+ * If it isn't found within the last {@link #MAX_WINDOW} bytes, nothing is done and the caller has to fall back to
+ * rewriting the whole file.
+ * </p>
+ * <p>
+ * If the old tail stays as it is and lines only get appended, these are written in place. Otherwise the untouched
+ * prefix is copied without parsing it and the whole file is replaced by the {@link AtomicFileReplacer}, so a crash
+ * never loses the tail.
+ * </p>
+ */
+class TailInsertHelper {
+    private static final int INITIAL_WINDOW = 4 * 1024;
+    private static final int MAX_WINDOW = 64 * 1024;
+
+    private final STTItemConverter converter = new STTItemConverter();
+    private final File file;
+    private final AtomicFileReplacer replacer;
+    private final String lineToDelete;
+    private final TimeTrackingItem itemToDelete;
+    private final TimeTrackingItem itemToInsert;
+    private long rewrittenFrom = -1;
+
+    TailInsertHelper(File file, TimeTrackingItem itemToDelete, TimeTrackingItem itemToInsert) {
+        this(file, new AtomicFileReplacer(file), itemToDelete, itemToInsert);
+    }
+
+    TailInsertHelper(File file, AtomicFileReplacer replacer, TimeTrackingItem itemToDelete,
+                     TimeTrackingItem itemToInsert) {
+        this.file = Objects.requireNonNull(file);
+        this.replacer = Objects.requireNonNull(replacer);
+        this.itemToDelete = itemToDelete;
+        this.lineToDelete = itemToDelete == null ? null : converter.timeTrackingItemToLine(itemToDelete);
+        this.itemToInsert = Objects.requireNonNull(itemToInsert);
+    }
+
+    /**
+     * @return true if the insert was performed, false if the affected region is too far from the end of the file
+     */
+    boolean performInsert() throws IOException {
+        long prefixLength;
+        byte[] newSuffix;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long length = raf.length();
+            int window = INITIAL_WINDOW;
+            while (true) {
+                int size = (int) Math.min(window, length);
+                long windowStart = length - size;
+                byte[] tail = new byte[size];
+                raf.seek(windowStart);
+                raf.readFully(tail);
+                int suffixStart = findStartOfAffectedLines(tail, windowStart == 0);
+                if (suffixStart >= 0) {
+                    boolean needsLineBreak = suffixStart > 0 && tail[suffixStart - 1] != '\n';
+                    byte[] oldSuffix = Arrays.copyOfRange(tail, suffixStart, size);
+                    newSuffix = rewrite(new String(oldSuffix, StandardCharsets.UTF_8), needsLineBreak)
+                            .getBytes(StandardCharsets.UTF_8);
+                    rewrittenFrom = windowStart + suffixStart;
+                    if (startsWith(newSuffix, oldSuffix)) {
+                        raf.seek(length);
+                        raf.write(newSuffix, oldSuffix.length, newSuffix.length - oldSuffix.length);
+                        raf.getChannel().force(true);
+                        return true;
+                    }
+                    prefixLength = windowStart + suffixStart;
+                    break;
+                }
+                if (windowStart == 0 || window >= MAX_WINDOW) {
+                    return false;
+                }
+                window *= 2;
+            }
+        }
+        replaceFrom(prefixLength, newSuffix);
+        return true;
+    }
+
+    /**
+     * @return the offset from which on lines were rewritten or appended by {@link #performInsert()}, or -1 if it
+     * didn't insert
+     */
+    long getRewrittenFrom() {
+        return rewrittenFrom;
+    }
+
+    /**
+     * @return the offset in tail of the first line which might be affected, or -1 if the window starts within
+     * the affected region
+     */
+    private int findStartOfAffectedLines(byte[] tail, boolean windowStartsAtBeginningOfFile) {
+        boolean deletedLineSeen = itemToDelete == null;
+        int lineEnd = tail.length;
+        for (int i = tail.length - 1; i >= 0; i--) {
+            if (tail[i] != '\n') {
+                continue;
+            }
+            String line = lineAt(tail, i + 1, lineEnd);
+            if (!line.trim().isEmpty()) {
+                if (line.equals(lineToDelete)) {
+                    deletedLineSeen = true;
+                } else if (isUnaffected(converter.lineToTimeTrackingItem(line), deletedLineSeen)) {
+                    return nextLineStart(tail, lineEnd);
+                }
+            }
+            lineEnd = i;
+        }
+        if (!windowStartsAtBeginningOfFile) {
+            return -1;
+        }
+        String firstLine = lineAt(tail, 0, lineEnd);
+        if (!firstLine.trim().isEmpty() && !firstLine.equals(lineToDelete)
+                && isUnaffected(converter.lineToTimeTrackingItem(firstLine), deletedLineSeen)) {
+            return nextLineStart(tail, lineEnd);
+        }
+        return 0;
+    }
+
+    private int nextLineStart(byte[] tail, int lineEnd) {
+        return lineEnd < tail.length ? lineEnd + 1 : tail.length;
+    }
+
+    private boolean isUnaffected(TimeTrackingItem item, boolean deletedLineSeen) {
+        // An item to delete can only follow items starting before it
+        return item.endsAtOrBefore(itemToInsert.getStart())
+                && (deletedLineSeen || item.getStart().isBefore(itemToDelete.getStart()));
+    }
+
+    private String lineAt(byte[] tail, int from, int to) {
+        int end = to > from && tail[to - 1] == '\r' ? to - 1 : to;
+        return new String(tail, from, end - from, StandardCharsets.UTF_8);
+    }
+
+    private String rewrite(String suffix, boolean needsLineBreak) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        if (needsLineBreak) {
+            stringWriter.write(System.lineSeparator());
+        }
+        StringWriter remaining = new StringWriter();
+        try (BufferedReader in = new BufferedReader(new StringReader(suffix));
+             PrintWriter out = new PrintWriter(remaining)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.equals(lineToDelete)) {
+                    out.println(line);
+                }
+            }
+        }
+        try (STTItemReader in = new STTItemReader(new StringReader(remaining.toString()));
+             STTItemWriter out = new STTItemWriter(stringWriter)) {
+            new InsertHelper(in, out, itemToInsert).performInsert();
+        }
+        return stringWriter.toString();
+    }
+
+    private static boolean startsWith(byte[] content, byte[] prefix) {
+        return content.length >= prefix.length
+                && Arrays.equals(Arrays.copyOf(content, prefix.length), prefix);
+    }
+
+    /**
+     * Replaces the file by its first bytes up to the offset, followed by the given content.
+     */
+    private void replaceFrom(long offset, byte[] content) throws IOException {
+        replacer.replaceWith(channel -> {
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < offset) {
+                    long transferred = in.transferTo(position, offset - position, channel);
+                    if (transferred <= 0) {
+                        throw new EOFException("File got shorter than " + offset + " bytes: " + file);
+                    }
+                    position += transferred;
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+}
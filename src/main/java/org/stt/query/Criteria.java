@@ -79,6 +79,23 @@ public class Criteria {
         return this;
     }
 
+    /**
+     * @return no item starting before this time can match
+     */
+    LocalDateTime getStartLowerBound() {
+        return startsAt != null && startsAt.isAfter(startNotBefore) ? startsAt : startNotBefore;
+    }
+
+    /**
+     * @return no item starting at or after this time can match
+     */
+    LocalDateTime getStartUpperBound() {
+        if (startsAt != null && startsAt.isBefore(startBefore)) {
+            return startsAt.plusNanos(1);
+        }
+        return startBefore;
+    }
+
     public boolean matches(TimeTrackingItem item) {
         Objects.requireNonNull(item);
         if (!item.getStart().isBefore(startBefore)) {
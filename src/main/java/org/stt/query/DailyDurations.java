@@ -0,0 +1,203 @@
+package org.stt.query;
+
+import net.engio.mbassy.bus.MBassador;
+import net.engio.mbassy.listener.Handler;
+import org.stt.StopWatch;
+import org.stt.model.ItemDeleted;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemModified;
+import org.stt.model.ItemReplaced;
+import org.stt.model.TimeTrackingItem;
+import org.stt.text.ItemCategorizer;
+import org.stt.text.ItemCategorizer.ItemCategory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sums of the durations of all items per day (of their start) and {@link ItemCategory}. Only days touched by
+ * modifications get recalculated. Items without an end are kept aside and added with their elapsed time on each query.
+ */
+@Singleton
+public class DailyDurations {
+    private static final Logger LOG = Logger.getLogger(DailyDurations.class.getSimpleName());
+    private final TimeTrackingItemQueries queries;
+    private final ItemCategorizer categorizer;
+    private NavigableMap<LocalDate, DayTotals> days;
+    private final List<TimeTrackingItem> openItems = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+
+    @Inject
+    public DailyDurations(TimeTrackingItemQueries queries,
+                          ItemCategorizer categorizer,
+                          Optional<MBassador<Object>> eventbus) {
+        this.queries = requireNonNull(queries);
+        this.categorizer = requireNonNull(categorizer);
+        eventbus.ifPresent(bus -> bus.subscribe(this));
+    }
+
+    /**
+     * Runs after {@link TimeTrackingItemQueries#sourceChanged(ItemModified)}, so the queries already reflect the
+     * modification.
+     */
+    @Handler(priority = Integer.MAX_VALUE - 1)
+    public synchronized void sourceChanged(ItemModified event) {
+        if (days == null) {
+            return;
+        }
+        if (event instanceof ItemInserted) {
+            inserted(((ItemInserted) event).newItem);
+        } else if (event instanceof ItemDeleted) {
+            LocalDate day = ((ItemDeleted) event).deletedItem.getStart().toLocalDate();
+            recalculate(day, day);
+        } else if (event instanceof ItemReplaced) {
+            LocalDate day = ((ItemReplaced) event).beforeUpdate.getStart().toLocalDate();
+            recalculate(day, day);
+            inserted(((ItemReplaced) event).afterUpdate);
+        } else {
+            days = null;
+            LOG.fine("Clearing daily durations");
+            listeners.forEach(listener -> listener.durationsChanged(LocalDate.MIN, LocalDate.MAX));
+        }
+    }
+
+    public synchronized void addListener(Listener listener) {
+        listeners.add(requireNonNull(listener));
+    }
+
+    /**
+     * @return the sum of all durations of items of the given category starting at or after from and before to.
+     * Items without end are considered to end at the given time.
+     */
+    public synchronized Duration getDuration(LocalDate from, LocalDate to, ItemCategory category, LocalDateTime now) {
+        validate();
+        long seconds = 0;
+        for (DayTotals totals : days.subMap(from, true, to, false).values()) {
+            seconds += totals.seconds[category.ordinal()];
+        }
+        Duration result = Duration.ofSeconds(seconds);
+        for (TimeTrackingItem item : openItems) {
+            LocalDate day = item.getStart().toLocalDate();
+            if (!day.isBefore(from) && day.isBefore(to) && categorizer.getCategory(item.getActivity()) == category) {
+                result = result.plus(Duration.between(item.getStart(), now));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the sum of all durations of items of the given category for each day containing any such item.
+     * Items without end are considered to end at the given time.
+     */
+    public Map<LocalDate, Duration> getDurationsPerDay(ItemCategory category, LocalDateTime now) {
+        return getDurationsPerDay(LocalDate.MIN, LocalDate.MAX, category, now);
+    }
+
+    /**
+     * @return the sum of all durations of items of the given category for each day starting at or after from and
+     * before to containing any such item. Items without end are considered to end at the given time.
+     */
+    public synchronized Map<LocalDate, Duration> getDurationsPerDay(LocalDate from, LocalDate to,
+                                                                    ItemCategory category, LocalDateTime now) {
+        validate();
+        Map<LocalDate, Duration> result = new TreeMap<>();
+        days.subMap(from, true, to, false).forEach((day, totals) -> {
+            if (totals.items[category.ordinal()] > 0) {
+                result.put(day, Duration.ofSeconds(totals.seconds[category.ordinal()]));
+            }
+        });
+        for (TimeTrackingItem item : openItems) {
+            LocalDate day = item.getStart().toLocalDate();
+            if (!day.isBefore(from) && day.isBefore(to) && categorizer.getCategory(item.getActivity()) == category) {
+                result.merge(day, Duration.between(item.getStart(), now), Duration::plus);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the days of the items without end, their durations change with the time
+     */
+    public synchronized NavigableSet<LocalDate> getDaysWithOpenItems() {
+        validate();
+        NavigableSet<LocalDate> result = new TreeSet<>();
+        for (TimeTrackingItem item : openItems) {
+            result.add(item.getStart().toLocalDate());
+        }
+        return result;
+    }
+
+    private void inserted(TimeTrackingItem newItem) {
+        // The insert might have ended or shortened the item directly before it, and removed or moved
+        // all items up to its own end
+        LocalDate from = queries.getAdjacentItems(newItem).previousItem()
+                .map(TimeTrackingItem::getStart)
+                .orElse(newItem.getStart())
+                .toLocalDate();
+        LocalDate to = newItem.getEnd().map(LocalDateTime::toLocalDate).orElse(LocalDate.MAX);
+        recalculate(from, to);
+    }
+
+    private void recalculate(LocalDate from, LocalDate to) {
+        days.subMap(from, true, to, true).clear();
+        openItems.removeIf(item -> {
+            LocalDate day = item.getStart().toLocalDate();
+            return !day.isBefore(from) && !day.isAfter(to);
+        });
+        Criteria criteria = new Criteria().withStartNotBefore(from.atStartOfDay());
+        if (to.isBefore(LocalDate.MAX)) {
+            criteria.withStartBefore(to.plusDays(1).atStartOfDay());
+        }
+        try (Stream<TimeTrackingItem> items = queries.queryItems(criteria)) {
+            items.forEach(this::add);
+        }
+        listeners.forEach(listener -> listener.durationsChanged(from, to));
+    }
+
+    private void validate() {
+        if (days == null) {
+            StopWatch stopWatch = new StopWatch("Daily durations rebuild");
+            days = new TreeMap<>();
+            openItems.clear();
+            try (Stream<TimeTrackingItem> items = queries.queryAllItems()) {
+                items.forEach(this::add);
+            }
+            stopWatch.stop();
+        }
+    }
+
+    private void add(TimeTrackingItem item) {
+        if (!item.getEnd().isPresent()) {
+            openItems.add(item);
+            return;
+        }
+        int category = categorizer.getCategory(item.getActivity()).ordinal();
+        DayTotals totals = days.computeIfAbsent(item.getStart().toLocalDate(), day -> new DayTotals());
+        totals.seconds[category] += Duration.between(item.getStart(), item.getEnd().get()).getSeconds();
+        totals.items[category]++;
+    }
+
+    /**
+     * Gets notified of changed days while the {@link DailyDurations} are locked, so it must not call back.
+     */
+    public interface Listener {
+        /**
+         * @param from the first changed day
+         * @param to   the last changed day, inclusive
+         */
+        void durationsChanged(LocalDate from, LocalDate to);
+    }
+
+    private static class DayTotals {
+        private final long[] seconds = new long[ItemCategory.values().length];
+        private final int[] items = new int[ItemCategory.values().length];
+    }
+}
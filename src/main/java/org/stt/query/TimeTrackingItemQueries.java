@@ -3,8 +3,14 @@ package org.stt.query;
 import net.engio.mbassy.bus.MBassador;
 import net.engio.mbassy.listener.Handler;
 import org.stt.StopWatch;
+import org.stt.config.PersistenceConfig;
+import org.stt.model.ItemDeleted;
+import org.stt.model.ItemInserted;
 import org.stt.model.ItemModified;
+import org.stt.model.ItemReplaced;
 import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ColumnarItemList;
+import org.stt.persistence.ItemLists;
 import org.stt.persistence.ItemReader;
 
 import javax.inject.Inject;
@@ -13,6 +19,7 @@ import javax.inject.Singleton;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -25,23 +32,58 @@ import static org.stt.Streams.distinctByKey;
 public class TimeTrackingItemQueries {
     private static final Logger LOG = Logger.getLogger(TimeTrackingItemQueries.class.getSimpleName());
     private final Provider<ItemReader> provider;
+    private final boolean columnarCache;
     private List<TimeTrackingItem> cachedItems;
+    private boolean cacheSortedByStart;
+    private boolean cacheShared;
 
 	/**
      * @param provider
      *            where to search for items
      */
-    @Inject
     public TimeTrackingItemQueries(Provider<ItemReader> provider,
                                    Optional<MBassador<Object>> eventbus) {
+        this(provider, eventbus, new PersistenceConfig());
+    }
+
+    @Inject
+    public TimeTrackingItemQueries(Provider<ItemReader> provider,
+                                   Optional<MBassador<Object>> eventbus,
+                                   PersistenceConfig persistenceConfig) {
         this.provider = requireNonNull(provider);
+        this.columnarCache = persistenceConfig.isColumnarCache();
         eventbus.ifPresent(bus -> bus.subscribe(this));
     }
 
+    /**
+     * Patches the cache with the inserted, deleted or replaced item. Any other modification, like
+     * {@link org.stt.model.ItemsChangedExternally}, clears the cache.
+     * <p>
+     * The cache is only accessed while holding the lock of this instance. Queries stream the cached items within their
+     * start bounds without copying them and mark the cache as shared. The next modification patches a copy instead,
+     * so the streams can be consumed concurrently to modifications.
+     * </p>
+     */
     @Handler(priority = Integer.MAX_VALUE)
     public synchronized void sourceChanged(ItemModified event) {
-        cachedItems = null;
-        LOG.fine("Clearing query cache");
+        if (cachedItems == null) {
+            return;
+        }
+        if (!cacheSortedByStart) {
+            cachedItems = null;
+            LOG.fine("Clearing unsorted query cache");
+        } else if (event instanceof ItemInserted) {
+            ItemLists.insert(modifiableCache(), ((ItemInserted) event).newItem);
+        } else if (event instanceof ItemDeleted) {
+            ItemLists.delete(modifiableCache(), ((ItemDeleted) event).deletedItem);
+        } else if (event instanceof ItemReplaced) {
+            ItemReplaced itemReplaced = (ItemReplaced) event;
+            ItemLists.delete(modifiableCache(), itemReplaced.beforeUpdate);
+            ItemLists.insert(modifiableCache(), itemReplaced.afterUpdate);
+        } else {
+            cachedItems = null;
+            LOG.fine("Clearing query cache");
+        }
     }
 
     /**
@@ -51,7 +93,7 @@ public class TimeTrackingItemQueries {
         return getLastItem().filter(timeTrackingItem -> !timeTrackingItem.getEnd().isPresent());
     }
 
-    public Optional<TimeTrackingItem> getLastItem() {
+    public synchronized Optional<TimeTrackingItem> getLastItem() {
         validateCache();
         return cachedItems.isEmpty() ? Optional.empty() : Optional.of(cachedItems.get(cachedItems.size() - 1));
     }
@@ -60,9 +102,9 @@ public class TimeTrackingItemQueries {
      * Returns the items coming directly before and directly after the give item.
      * There will be no gap between previousItem, forItem and nextItem
      */
-    public AdjacentItems getAdjacentItems(TimeTrackingItem forItem) {
+    public synchronized AdjacentItems getAdjacentItems(TimeTrackingItem forItem) {
         validateCache();
-        int itemIndex = cachedItems.indexOf(forItem);
+        int itemIndex = cacheSortedByStart ? ItemLists.indexOf(cachedItems, forItem) : cachedItems.indexOf(forItem);
         TimeTrackingItem previous = null;
         if (itemIndex > 0) {
             TimeTrackingItem potentialPrevious = cachedItems.get(itemIndex - 1);
@@ -99,29 +141,58 @@ public class TimeTrackingItemQueries {
      * @return a {@link Stream} containing all time tracking items matching the given criteria, be sure to {@link Stream#close()} it!
      */
     public Stream<TimeTrackingItem> queryItems(Criteria criteria) {
-        return queryAllItems()
+        return itemsWithinStartBoundsOf(criteria).stream()
                 .filter(criteria::matches);
     }
 
+    private synchronized List<TimeTrackingItem> itemsWithinStartBoundsOf(Criteria criteria) {
+        List<TimeTrackingItem> items = sharedCache();
+        if (!cacheSortedByStart) {
+            return items;
+        }
+        int from = ItemLists.firstIndexStartingAtOrAfter(cachedItems, criteria.getStartLowerBound());
+        int to = ItemLists.firstIndexStartingAtOrAfter(cachedItems, criteria.getStartUpperBound());
+        return items.subList(from, Math.max(from, to));
+    }
+
     /**
      * @return a {@link Stream} containing all time tracking items, be sure to {@link Stream#close()} it!
      */
     public Stream<TimeTrackingItem> queryAllItems() {
+        return sharedCache().stream();
+    }
+
+    /**
+     * @return the cached items, which won't be modified anymore
+     */
+    private synchronized List<TimeTrackingItem> sharedCache() {
         validateCache();
-        return cachedItems.stream();
+        cacheShared = true;
+        return Collections.unmodifiableList(cachedItems);
+    }
+
+    private List<TimeTrackingItem> modifiableCache() {
+        if (cacheShared) {
+            cachedItems = cachedItems instanceof ColumnarItemList ? new ColumnarItemList((ColumnarItemList) cachedItems)
+                    : new ArrayList<>(cachedItems);
+            cacheShared = false;
+        }
+        return cachedItems;
     }
 
     private synchronized void validateCache() {
         if (cachedItems == null) {
             LOG.fine("Rebuilding cache");
             StopWatch stopWatch = new StopWatch("Query cache rebuild");
-            cachedItems = new ArrayList<>(2000);
+            cachedItems = columnarCache ? new ColumnarItemList() : new ArrayList<>(2000);
+            cacheShared = false;
             try (ItemReader reader = provider.get()) {
                 Optional<TimeTrackingItem> itemOptional;
                 while ((itemOptional = reader.read()).isPresent()) {
                     cachedItems.add(itemOptional.get());
                 }
             }
+            cacheSortedByStart = ItemLists.isSortedByStart(cachedItems);
             stopWatch.stop();
         }
     }
@@ -18,27 +18,51 @@ public class WorkTimeQueries {
     private WorkingtimeItemProvider workingtimeItemProvider;
     private ItemCategorizer itemCategorizer;
     private TimeTrackingItemQueries timeTrackingItemQueries;
+    private DailyDurations dailyDurations;
 
     @Inject
     public WorkTimeQueries(WorkingtimeItemProvider workingtimeItemProvider, ItemCategorizer itemCategorizer,
-                           TimeTrackingItemQueries timeTrackingItemQueries) {
+                           TimeTrackingItemQueries timeTrackingItemQueries, DailyDurations dailyDurations) {
         this.workingtimeItemProvider = Objects.requireNonNull(workingtimeItemProvider);
         this.itemCategorizer = Objects.requireNonNull(itemCategorizer);
         this.timeTrackingItemQueries = Objects.requireNonNull(timeTrackingItemQueries);
+        this.dailyDurations = Objects.requireNonNull(dailyDurations);
     }
 
+    /**
+     * Uses the pre-aggregated daily durations, so this is cheap enough to be called every second.
+     */
     public Duration queryRemainingWorktimeToday() {
         LocalDateTime now = DateTimes.preciseToSecond(LocalDateTime.now());
         LocalDate today = now.toLocalDate();
-        Duration workedTime = queryWorktime(Interval.ofDay(today).withEnd(now));
+        Duration workedTime = worktimeStartingBeforeNow(today, now);
+        workingtimeItemProvider.reloadIfModified();
         return workingtimeItemProvider.getWorkingTimeFor(today).getMin().minus(workedTime);
     }
 
+    /**
+     * Uses the pre-aggregated daily durations, so this is cheap enough to be called every second.
+     */
     public Duration queryWeekWorktime() {
         LocalDateTime now = DateTimes.preciseToSecond(LocalDateTime.now());
         LocalDate monday = now.toLocalDate().with(DayOfWeek.MONDAY);
-        Interval currentWeek = Interval.between(monday.atStartOfDay(), now);
-        return queryWorktime(currentWeek);
+        return worktimeStartingBeforeNow(monday, now);
+    }
+
+    /**
+     * The daily durations cover whole days, so the items of today starting at or after now are taken out again.
+     */
+    private Duration worktimeStartingBeforeNow(LocalDate from, LocalDateTime now) {
+        LocalDateTime endOfToday = now.toLocalDate().plusDays(1).atStartOfDay();
+        Duration worktime = dailyDurations.getDuration(from, endOfToday.toLocalDate(),
+                ItemCategorizer.ItemCategory.WORKTIME, now);
+        Criteria criteria = new Criteria();
+        criteria.withStartNotBefore(now);
+        criteria.withStartBefore(endOfToday);
+        return timeTrackingItemQueries.queryItems(criteria)
+                .filter(item -> itemCategorizer.getCategory(item.getActivity()) == ItemCategorizer.ItemCategory.WORKTIME)
+                .map(item -> Duration.between(item.getStart(), item.getEnd().orElse(now)))
+                .reduce(worktime, Duration::minus);
     }
 
     public Duration queryWorktime(Interval interval) {
@@ -0,0 +1,224 @@
+package org.stt.reporting;
+
+import net.engio.mbassy.bus.MBassador;
+import net.engio.mbassy.listener.Handler;
+import org.stt.config.ReportConfig;
+import org.stt.model.ItemDeleted;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemModified;
+import org.stt.model.ItemReplaced;
+import org.stt.model.TimeTrackingItem;
+import org.stt.query.Criteria;
+import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.SummingReportGenerator.Report;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Remembers the summaries of the most recently requested days and the days having any items.
+ * <p>
+ * Summaries of whole weeks and months are composed of the days and remembered too, so reports of wider ranges merge
+ * the summaries of the months, weeks and remaining days they cover instead of summing up all their items. Each kind
+ * of summary is limited to the configured number of most recently used ones.
+ * </p>
+ * <p>
+ * Modifications only drop the summaries of the days they touch and of the weeks and months containing them, the
+ * tracked days of those are queried again. Summaries with an ongoing item change with the time, these are never
+ * remembered.
+ * </p>
+ */
+@Singleton
+public class DailyReportCache {
+    private final TimeTrackingItemQueries queries;
+    private final Map<LocalDate, ReportSummary> days;
+    private final Map<LocalDate, ReportSummary> weeks;
+    private final Map<LocalDate, ReportSummary> months;
+    private NavigableSet<LocalDate> trackedDays;
+
+    @Inject
+    public DailyReportCache(TimeTrackingItemQueries queries,
+                            Optional<MBassador<Object>> eventbus,
+                            ReportConfig config) {
+        this.queries = requireNonNull(queries);
+        int maxSummaries = config.getCachedReportDays();
+        this.days = leastRecentlyUsedDropping(maxSummaries);
+        this.weeks = leastRecentlyUsedDropping(maxSummaries);
+        this.months = leastRecentlyUsedDropping(maxSummaries);
+        eventbus.ifPresent(bus -> bus.subscribe(this));
+    }
+
+    private static Map<LocalDate, ReportSummary> leastRecentlyUsedDropping(int maxSize) {
+        return new LinkedHashMap<LocalDate, ReportSummary>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, ReportSummary> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public Report reportOf(LocalDate day) {
+        return reportBetween(day, day.plusDays(1));
+    }
+
+    /**
+     * @return the report of all items starting at or after the start of the first day and before the start of the
+     * last day
+     */
+    public synchronized Report reportBetween(LocalDate from, LocalDate to) {
+        LocalDateTime now = LocalDateTime.now();
+        validateTrackedDays();
+        ReportSummary summary = new ReportSummary(now);
+        if (!trackedDays.isEmpty()) {
+            LocalDate first = max(from, trackedDays.first());
+            LocalDate last = min(to, trackedDays.last().plusDays(1));
+            addSummaries(summary, first, last, true, true, now);
+        }
+        return summary.toReport();
+    }
+
+    /**
+     * Adds the summaries of all days from the first up to the last one, excluding it. Months and weeks which are
+     * completely within that range are added as a whole, if allowed.
+     */
+    private void addSummaries(ReportSummary summary, LocalDate from, LocalDate to, boolean useMonths,
+                              boolean useWeeks, LocalDateTime now) {
+        LocalDate day = from;
+        while (day.isBefore(to)) {
+            if (useMonths && day.getDayOfMonth() == 1 && !day.plusMonths(1).isAfter(to)) {
+                summary.combine(monthSummary(day, now));
+                day = day.plusMonths(1);
+            } else if (useWeeks && day.getDayOfWeek() == DayOfWeek.MONDAY && !day.plusWeeks(1).isAfter(to)) {
+                summary.combine(weekSummary(day, now));
+                day = day.plusWeeks(1);
+            } else {
+                if (trackedDays.contains(day)) {
+                    summary.combine(daySummary(day, now));
+                }
+                day = day.plusDays(1);
+            }
+        }
+    }
+
+    private ReportSummary monthSummary(LocalDate firstDay, LocalDateTime now) {
+        ReportSummary summary = months.get(firstDay);
+        if (summary == null) {
+            summary = new ReportSummary(now);
+            addSummaries(summary, firstDay, firstDay.plusMonths(1), false, true, now);
+            if (!summary.isOngoing()) {
+                months.put(firstDay, summary);
+            }
+        }
+        return summary;
+    }
+
+    private ReportSummary weekSummary(LocalDate monday, LocalDateTime now) {
+        ReportSummary summary = weeks.get(monday);
+        if (summary == null) {
+            summary = new ReportSummary(now);
+            addSummaries(summary, monday, monday.plusWeeks(1), false, false, now);
+            if (!summary.isOngoing()) {
+                weeks.put(monday, summary);
+            }
+        }
+        return summary;
+    }
+
+    private ReportSummary daySummary(LocalDate day, LocalDateTime now) {
+        ReportSummary summary = days.get(day);
+        if (summary == null) {
+            try (Stream<TimeTrackingItem> items = queries.queryItems(new Criteria().withPeriodAtDay(day))) {
+                summary = items.collect(ReportSummary.summing(now));
+            }
+            if (!summary.isOngoing()) {
+                days.put(day, summary);
+            }
+        }
+        return summary;
+    }
+
+    public synchronized boolean isTrackedDay(LocalDate day) {
+        validateTrackedDays();
+        return trackedDays.contains(day);
+    }
+
+    private void validateTrackedDays() {
+        if (trackedDays == null) {
+            try (Stream<LocalDate> trackedDaysOfItems = queries.queryAllTrackedDays()) {
+                trackedDays = trackedDaysOfItems.collect(Collectors.toCollection(TreeSet::new));
+            }
+        }
+    }
+
+    /**
+     * Runs after {@link TimeTrackingItemQueries} got updated, but before any other handler can request a report.
+     */
+    @Handler(priority = Integer.MAX_VALUE - 1)
+    public synchronized void itemModified(ItemModified event) {
+        if (event instanceof ItemInserted) {
+            inserted(((ItemInserted) event).newItem);
+        } else if (event instanceof ItemDeleted) {
+            LocalDate day = ((ItemDeleted) event).deletedItem.getStart().toLocalDate();
+            invalidate(day, day);
+        } else if (event instanceof ItemReplaced) {
+            ItemReplaced itemReplaced = (ItemReplaced) event;
+            LocalDate day = itemReplaced.beforeUpdate.getStart().toLocalDate();
+            invalidate(day, day);
+            inserted(itemReplaced.afterUpdate);
+        } else {
+            days.clear();
+            weeks.clear();
+            months.clear();
+            trackedDays = null;
+        }
+    }
+
+    /**
+     * An inserted item changes the days it covers. The item before it might have been cut, changing the day that one
+     * started.
+     */
+    private void inserted(TimeTrackingItem item) {
+        LocalDate from = queries.getAdjacentItems(item).previousItem()
+                .map(TimeTrackingItem::getStart)
+                .orElse(item.getStart())
+                .toLocalDate();
+        invalidate(from, item.getEnd().map(LocalDateTime::toLocalDate).orElse(LocalDate.MAX));
+    }
+
+    private void invalidate(LocalDate from, LocalDate to) {
+        removeStartingWithin(days, from, to);
+        removeStartingWithin(weeks, from.minusDays(6), to);
+        removeStartingWithin(months, from.withDayOfMonth(1), to);
+        if (trackedDays == null) {
+            return;
+        }
+        trackedDays.subSet(from, true, to, true).clear();
+        Criteria criteria = new Criteria().withStartNotBefore(from.atStartOfDay());
+        if (to.isBefore(LocalDate.MAX)) {
+            criteria.withStartBefore(to.plusDays(1).atStartOfDay());
+        }
+        try (Stream<TimeTrackingItem> items = queries.queryItems(criteria)) {
+            items.map(item -> item.getStart().toLocalDate()).forEach(trackedDays::add);
+        }
+    }
+
+    private static void removeStartingWithin(Map<LocalDate, ReportSummary> summaries, LocalDate from, LocalDate to) {
+        summaries.keySet().removeIf(day -> !day.isBefore(from) && !day.isAfter(to));
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
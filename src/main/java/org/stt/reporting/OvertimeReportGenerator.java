@@ -1,104 +1,142 @@
 package org.stt.reporting;
 
-import org.stt.model.TimeTrackingItem;
-import org.stt.query.TimeTrackingItemQueries;
+import org.stt.query.DailyDurations;
 import org.stt.reporting.WorkingtimeItemProvider.WorkingtimeItem;
-import org.stt.text.ItemCategorizer;
 import org.stt.text.ItemCategorizer.ItemCategory;
-import org.stt.time.DateTimes;
 
+import javax.inject.Inject;
+import javax.inject.Singleton;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.stream.Stream;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Calculates overtime information
+ * <p>
+ * Keeps a ledger of the overtime per day with running sums, so the overall overtime up to any day is looked up
+ * instead of summed up. Only the days reported as changed by {@link DailyDurations} or with changed working times
+ * get recalculated. Days with items without end change with the time and are calculated on each request.
+ * </p>
  */
+@Singleton
 public class OvertimeReportGenerator {
 
-	private final ItemCategorizer categorizer;
-    private final TimeTrackingItemQueries queries;
+    private final DailyDurations dailyDurations;
     private WorkingtimeItemProvider workingtimeItemProvider;
+    private final Queue<LocalDate[]> changedDays = new ConcurrentLinkedQueue<>();
+    private Map<LocalDate, WorkingtimeItem> absences;
+    private NavigableMap<LocalDate, Duration> overtimePerDay;
+    private RunningSums runningSums;
 
-    public OvertimeReportGenerator(TimeTrackingItemQueries queries,
-                                   ItemCategorizer categorizer,
+    @Inject
+    public OvertimeReportGenerator(DailyDurations dailyDurations,
                                    WorkingtimeItemProvider workingtimeItemProvider) {
-        this.queries = queries;
-        this.categorizer = categorizer;
+        this.dailyDurations = dailyDurations;
 		this.workingtimeItemProvider = workingtimeItemProvider;
+        dailyDurations.addListener((from, to) -> changedDays.add(new LocalDate[]{from, to}));
+        workingtimeItemProvider.addListener(day -> changedDays.add(new LocalDate[]{day, day}));
 	}
 
 	/**
 	 * @return overtime information from the given time to the other given time
      */
-    public Map<LocalDate, Duration> getOvertime(LocalDate from, LocalDate to) {
-        Map<LocalDate, Duration> result = new TreeMap<>();
-
-        for (Map.Entry<LocalDate, Duration> e : getOvertime().entrySet()) {
-            if (DateTimes.isBetween(e.getKey(), from, to)) {
-                result.put(e.getKey(), e.getValue());
-            }
-        }
-		return result;
+    public synchronized Map<LocalDate, Duration> getOvertime(LocalDate from, LocalDate to) {
+        validate();
+        Map<LocalDate, Duration> result = new TreeMap<>(overtimePerDay.subMap(from, true, to, true));
+        result.putAll(getOvertimeOfOpenDays(from, to, LocalDateTime.now()));
+        return result;
 	}
 
 	public Duration getOverallOvertime() {
-        Duration result = Duration.ZERO;
-        for (Duration d : getOvertime().values()) {
-			result = result.plus(d);
-		}
-		return result;
+        return getOverallOvertimeUpTo(LocalDate.MAX);
 	}
 
+    /**
+     * @return the sum of the overtime of all days up to and including the given one
+     */
+    public synchronized Duration getOverallOvertimeUpTo(LocalDate day) {
+        validate();
+        Duration result = runningSums.sumUpTo(day);
+        LocalDateTime now = LocalDateTime.now();
+        for (Duration overtime : getOvertimeOfOpenDays(LocalDate.MIN, day, now).values()) {
+            result = result.plus(overtime);
+        }
+        return result;
+    }
+
 	/**
 	 * @return the date and the according overtime (positive or negative) for
 	 *         all elements
 	 */
     public Map<LocalDate, Duration> getOvertime() {
-        try (Stream<TimeTrackingItem> items = queries.queryAllItems()) {
-            Map<LocalDate, Duration> dateToOvertime = new TreeMap<>();
-            items.forEach(item -> {
-                ItemCategory category = categorizer.getCategory(item.getActivity());
-                if (category.equals(ItemCategory.WORKTIME)) {
-                    LocalDate currentDay = item.getStart().toLocalDate();
-                    Duration currentDuration = dateToOvertime.get(currentDay);
-                    Duration itemDuration = Duration.between(item.getStart(), item
-                            .getEnd().orElse(LocalDateTime.now()));
-                    if (currentDuration != null) {
-						dateToOvertime.put(currentDay,
-								currentDuration.plus(itemDuration));
-					} else {
-						dateToOvertime.put(currentDay, itemDuration);
-					}
-				}
-            });
-
-            for (Map.Entry<LocalDate, Duration> e : dateToOvertime.entrySet()) {
-                dateToOvertime.put(e.getKey(),
-						getOvertime(e.getKey(), e.getValue()));
-			}
-
-			dateToOvertime.putAll(getAbsencesMap());
-			return dateToOvertime;
-		}
+        return getOvertime(LocalDate.MIN, LocalDate.MAX);
 	}
 
-	/**
-	 * returns the dates and corresponding absence durations for the given date
-	 */
-    private Map<LocalDate, Duration> getAbsencesMap() {
-        Map<LocalDate, WorkingtimeItem> overtimeAbsencesSince = workingtimeItemProvider
-                .getOvertimeAbsences();
-        Map<LocalDate, Duration> resultMap = new TreeMap<>();
-        for (Map.Entry<LocalDate, WorkingtimeItem> e : overtimeAbsencesSince
-                .entrySet()) {
-			resultMap.put(e.getKey(), e.getValue().getMin());
-		}
-		return resultMap;
-	}
+    private void validate() {
+        workingtimeItemProvider.reloadIfModified();
+        if (overtimePerDay != null && !changedDays.isEmpty()) {
+            absences = workingtimeItemProvider.getOvertimeAbsences();
+        }
+        LocalDate[] changed;
+        while (overtimePerDay != null && (changed = changedDays.poll()) != null) {
+            if (changed[0].equals(LocalDate.MIN) && changed[1].equals(LocalDate.MAX)) {
+                overtimePerDay = null;
+            } else {
+                recalculate(changed[0], changed[1]);
+            }
+        }
+        if (overtimePerDay == null) {
+            changedDays.clear();
+            absences = workingtimeItemProvider.getOvertimeAbsences();
+            overtimePerDay = new TreeMap<>();
+            runningSums = new RunningSums();
+            recalculate(LocalDate.MIN, LocalDate.MAX);
+        }
+    }
+
+    /**
+     * Replaces the overtime of all days from the first to the last one, excluding days with open items.
+     */
+    private void recalculate(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Duration> outdated = overtimePerDay.subMap(from, true, to, true);
+        outdated.forEach((day, overtime) -> runningSums.add(day, overtime.negated()));
+        outdated.clear();
+
+        LocalDate toExclusive = to.isBefore(LocalDate.MAX) ? to.plusDays(1) : LocalDate.MAX;
+        Set<LocalDate> openDays = dailyDurations.getDaysWithOpenItems();
+        Map<LocalDate, Duration> worked = dailyDurations.getDurationsPerDay(from, toExclusive, ItemCategory.WORKTIME,
+                LocalDateTime.now());
+        worked.keySet().removeAll(openDays);
+        for (Map.Entry<LocalDate, Duration> e : worked.entrySet()) {
+            outdated.put(e.getKey(), getOvertime(e.getKey(), e.getValue()));
+        }
+        absences.forEach((day, workingtime) -> {
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                outdated.put(day, workingtime.getMin());
+            }
+        });
+        outdated.forEach(runningSums::add);
+    }
+
+    /**
+     * @return the overtime of the days with open items, which are never kept
+     */
+    private Map<LocalDate, Duration> getOvertimeOfOpenDays(LocalDate from, LocalDate to, LocalDateTime now) {
+        Map<LocalDate, Duration> result = new TreeMap<>();
+        for (LocalDate day : dailyDurations.getDaysWithOpenItems().subSet(from, true, to, true)) {
+            if (absences.containsKey(day)) {
+                continue;
+            }
+            Duration worked = dailyDurations.getDurationsPerDay(day, day.plusDays(1), ItemCategory.WORKTIME, now)
+                    .get(day);
+            if (worked != null) {
+                result.put(day, getOvertime(day, worked));
+            }
+        }
+        return result;
+    }
 
 	/**
 	 * returns the overtime (positive or negative) for the given date and
@@ -115,4 +153,65 @@ public class OvertimeReportGenerator {
 
         return Duration.ZERO;
     }
+
+    /**
+     * Binary indexed tree of the overtime in nanoseconds per epoch day, supporting updates of single days and sums up
+     * to a day in logarithmic time. Covers a range of days which grows as needed.
+     */
+    private static class RunningSums {
+        private long firstDay;
+        private long[] tree = new long[0];
+
+        void add(LocalDate day, Duration overtime) {
+            long epochDay = day.toEpochDay();
+            if (tree.length == 0 || epochDay < firstDay || epochDay - firstDay + 1 >= tree.length) {
+                grow(epochDay);
+            }
+            long nanos = overtime.toNanos();
+            for (int i = (int) (epochDay - firstDay + 1); i < tree.length; i += i & -i) {
+                tree[i] += nanos;
+            }
+        }
+
+        Duration sumUpTo(LocalDate day) {
+            long epochDay = day.toEpochDay();
+            if (tree.length == 0 || epochDay < firstDay) {
+                return Duration.ZERO;
+            }
+            return Duration.ofNanos(prefixSum((int) Math.min(epochDay - firstDay + 1, tree.length - 1)));
+        }
+
+        private long prefixSum(int index) {
+            long nanos = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                nanos += tree[i];
+            }
+            return nanos;
+        }
+
+        /**
+         * Rebuilds the tree to cover the given day and the days covered so far with some room to spare.
+         */
+        private void grow(long epochDay) {
+            long[] values = new long[tree.length];
+            for (int i = 1; i < tree.length; i++) {
+                values[i] = prefixSum(i) - prefixSum(i - 1);
+            }
+            long newFirstDay = tree.length == 0 ? epochDay : Math.min(firstDay, epochDay);
+            long lastDay = tree.length == 0 ? epochDay : Math.max(firstDay + tree.length - 2, epochDay);
+            int size = (int) Math.max(2 * (lastDay - newFirstDay + 1), 366) + 1;
+            long[] newTree = new long[size];
+            for (int i = 1; i < values.length; i++) {
+                newTree[(int) (firstDay + i - 1 - newFirstDay + 1)] = values[i];
+            }
+            for (int i = 1; i < size; i++) {
+                int parent = i + (i & -i);
+                if (parent < size) {
+                    newTree[parent] += newTree[i];
+                }
+            }
+            firstDay = newFirstDay;
+            tree = newTree;
+        }
+    }
 }
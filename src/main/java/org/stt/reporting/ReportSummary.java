@@ -0,0 +1,107 @@
+package org.stt.reporting;
+
+import org.stt.model.ReportingItem;
+import org.stt.model.TimeTrackingItem;
+import org.stt.reporting.SummingReportGenerator.Report;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Sums of the durations per activity of a consecutive range of items, ordered by start. Summaries of consecutive
+ * ranges can be combined, adding the time not covered between them.
+ */
+class ReportSummary {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final LocalDateTime now;
+    private final Map<String, long[]> nanosPerActivity = new HashMap<>();
+    private TimeTrackingItem first;
+    private TimeTrackingItem last;
+    private long uncoveredNanos;
+
+    /**
+     * @param now the end of items without one
+     */
+    ReportSummary(LocalDateTime now) {
+        this.now = now;
+    }
+
+    /**
+     * @return a collector summing up items ordered by start, also for parallel streams
+     */
+    static Collector<TimeTrackingItem, ReportSummary, ReportSummary> summing(LocalDateTime now) {
+        return Collector.of(() -> new ReportSummary(now), ReportSummary::add, ReportSummary::combine,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    void add(TimeTrackingItem item) {
+        if (first == null) {
+            first = item;
+        } else {
+            addGapBetween(last, item);
+        }
+        last = item;
+        long nanos = Math.max(0, nanosBetween(item.getStart(), endOf(item)));
+        nanosPerActivity.computeIfAbsent(item.getActivity(), activity -> new long[1])[0] += nanos;
+    }
+
+    /**
+     * Adds the sums of the range following this one. The given summary is left unchanged.
+     */
+    ReportSummary combine(ReportSummary following) {
+        if (following.first == null) {
+            return this;
+        }
+        if (first == null) {
+            first = following.first;
+        } else {
+            addGapBetween(last, following.first);
+        }
+        last = following.last;
+        uncoveredNanos += following.uncoveredNanos;
+        following.nanosPerActivity.forEach((activity, nanos) ->
+                nanosPerActivity.computeIfAbsent(activity, key -> new long[1])[0] += nanos[0]);
+        return this;
+    }
+
+    /**
+     * @return true if the sums depend on the current time
+     */
+    boolean isOngoing() {
+        return last != null && !last.getEnd().isPresent();
+    }
+
+    Report toReport() {
+        List<ReportingItem> reportList = new ArrayList<>(nanosPerActivity.size());
+        nanosPerActivity.forEach((activity, nanos) ->
+                reportList.add(new ReportingItem(Duration.ofNanos(nanos[0]), activity)));
+        reportList.sort(comparing(ReportingItem::getComment));
+        return new Report(reportList, first == null ? null : first.getStart(),
+                last == null ? null : endOf(last), Duration.ofNanos(uncoveredNanos));
+    }
+
+    private void addGapBetween(TimeTrackingItem previous, TimeTrackingItem next) {
+        LocalDateTime endOfPrevious = endOf(previous);
+        if (endOfPrevious.isBefore(next.getStart())) {
+            uncoveredNanos += nanosBetween(endOfPrevious, next.getStart());
+        }
+    }
+
+    private LocalDateTime endOf(TimeTrackingItem item) {
+        return item.getEnd().orElse(now);
+    }
+
+    private static long nanosBetween(LocalDateTime start, LocalDateTime end) {
+        return (end.toEpochSecond(ZoneOffset.UTC) - start.toEpochSecond(ZoneOffset.UTC)) * NANOS_PER_SECOND
+                + end.getNano() - start.getNano();
+    }
+}
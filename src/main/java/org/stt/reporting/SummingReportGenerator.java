@@ -5,11 +5,10 @@ import org.stt.model.TimeTrackingItem;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.*;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
-import static java.util.Comparator.comparing;
-
 /**
  * Reads all elements from the given reader and groups by the comment of the
  * item: all items with the identical comment get merged into one
@@ -18,9 +17,11 @@ import static java.util.Comparator.comparing;
  * Items without an end date get reported as if the end date was now
  * <p>
  * Items will be returned sorted in ascending order of the comments
+ * <p>
+ * The items are collected, so a parallel stream gets summed up in chunks which are merged afterwards. Time not
+ * covered between two chunks is added when merging them, so the stream must be ordered by start.
  */
 public class SummingReportGenerator {
-
     private final Stream<TimeTrackingItem> itemsToRead;
 
     public SummingReportGenerator(Stream<TimeTrackingItem> itemsToRead) {
@@ -28,63 +29,12 @@ public class SummingReportGenerator {
     }
 
     public Report createReport() {
-        LocalDateTime startOfReport = null;
-        LocalDateTime endOfReport = null;
-        List<ReportingItem> reportList = new LinkedList<>();
-
-
-        Map<String, Duration> collectingMap = new HashMap<>();
-        Duration uncoveredDuration = Duration.ZERO;
-        TimeTrackingItem lastItem = null;
+        LocalDateTime now = LocalDateTime.now();
         try (Stream<TimeTrackingItem> items = itemsToRead) {
-            for (Iterator<TimeTrackingItem> it = items.iterator(); it.hasNext(); ) {
-                TimeTrackingItem item = it.next();
-                LocalDateTime now = LocalDateTime.now();
-                LocalDateTime start = item.getStart();
-                LocalDateTime end = item.getEnd().orElse(now);
-
-                if (lastItem != null) {
-                    LocalDateTime endOfLastItem = lastItem.getEnd().orElse(now);
-                    if (endOfLastItem.isBefore(start)) {
-                        Duration additionalUncoveredTime = Duration.between(
-                                endOfLastItem, start);
-                        uncoveredDuration = uncoveredDuration
-                                .plus(additionalUncoveredTime);
-                    }
-                }
-
-                lastItem = item;
-
-                if (startOfReport == null) {
-                    startOfReport = start;
-                }
-                endOfReport = end;
-
-                Duration duration = Duration.between(start, end);
-                if (duration.isNegative()) {
-                    duration = Duration.ZERO;
-                }
-                String comment = item.getActivity();
-                if (collectingMap.containsKey(comment)) {
-                    Duration oldDuration = collectingMap.get(comment);
-                    collectingMap.put(comment, oldDuration.plus(duration));
-                } else {
-                    collectingMap.put(comment, duration);
-                }
-            }
-
+            return items.collect(ReportSummary.summing(now)).toReport();
         }
-
-        for (Map.Entry<String, Duration> e : collectingMap.entrySet()) {
-            reportList.add(new ReportingItem(e.getValue(), e.getKey()));
-        }
-
-        reportList.sort(comparing(ReportingItem::getComment));
-        return new Report(reportList, startOfReport, endOfReport,
-                uncoveredDuration);
     }
 
-
     public static class Report {
         private final List<ReportingItem> reportingItems;
         private final LocalDateTime start;
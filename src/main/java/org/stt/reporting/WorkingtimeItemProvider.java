@@ -5,34 +5,69 @@ import org.stt.time.DateTimes;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Reads information about working times from the configured workingTimes file
- * and aggregates them into {@link WorkingtimeItem}s
+ * and aggregates them into {@link WorkingtimeItem}s. The file is read again by {@link #reloadIfModified()} once its
+ * modification time or length changed.
  */
+@Singleton
 public class WorkingtimeItemProvider {
     private static final Logger LOG = Logger.getLogger(WorkingtimeItemProvider.class.getSimpleName());
     private final WorktimeConfig config;
-    private Map<LocalDate, WorkingtimeItem> workingHoursPerDay = new HashMap<>();
+    private final File workingTimesFile;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Map<LocalDate, WorkingtimeItem> workingHoursPerDay = new HashMap<>();
+    private long loadedLastModified;
+    private long loadedLength;
 
 	@Inject
     public WorkingtimeItemProvider(WorktimeConfig config,
                                    @Named("homePath") String homePath) {
         this.config = requireNonNull(config);
 
-        File workingTimesFile = config.getWorkingTimesFile().file(homePath);
+        workingTimesFile = config.getWorkingTimesFile().file(homePath);
         if (workingTimesFile.exists()) {
-            populateHoursMapsFromFile(workingTimesFile);
+            load();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(requireNonNull(listener));
+    }
+
+    /**
+     * Reads the workingTimes file again if it changed since it was read, and notifies the listeners about each day
+     * with changed working times.
+     */
+    public synchronized void reloadIfModified() {
+        if (isStandardInput() || (workingTimesFile.lastModified() == loadedLastModified
+                && workingTimesFile.length() == loadedLength)) {
+            return;
+        }
+        Map<LocalDate, WorkingtimeItem> previous = workingHoursPerDay;
+        if (workingTimesFile.exists()) {
+            load();
+        } else {
+            workingHoursPerDay = new HashMap<>();
+            loadedLastModified = 0;
+            loadedLength = 0;
+        }
+        Set<LocalDate> changedDays = new TreeSet<>(previous.keySet());
+        changedDays.addAll(workingHoursPerDay.keySet());
+        changedDays.removeIf(day -> Objects.equals(previous.get(day), workingHoursPerDay.get(day)));
+        for (LocalDate day : changedDays) {
+            listeners.forEach(listener -> listener.workingTimeChanged(day));
         }
     }
 
@@ -66,10 +101,18 @@ public class WorkingtimeItemProvider {
         return workingHours;
     }
 
-	private void populateHoursMapsFromFile(File workingTimesFile) {
+    private void load() {
+        long lastModified = workingTimesFile.lastModified();
+        long length = workingTimesFile.length();
+        workingHoursPerDay = readHoursFromFile();
+        loadedLastModified = lastModified;
+        loadedLength = length;
+    }
 
+	private Map<LocalDate, WorkingtimeItem> readHoursFromFile() {
+        Map<LocalDate, WorkingtimeItem> hoursPerDay = new HashMap<>();
 		try (BufferedReader wtReader = new BufferedReader(
-				new InputStreamReader(constructReaderFrom(workingTimesFile), StandardCharsets.UTF_8))) {
+				new InputStreamReader(constructReaderFrom(), StandardCharsets.UTF_8))) {
 
 			String currentLine;
 			while ((currentLine = wtReader.readLine()) != null) {
@@ -83,7 +126,7 @@ public class WorkingtimeItemProvider {
 					if (split.length > 2) {
 						maxHours = split[2];
 					}
-					workingHoursPerDay.put(parseDateTime,
+					hoursPerDay.put(parseDateTime,
 							fromHours(minHours, maxHours));
 
 				} else if (currentLine.startsWith("hours")) {
@@ -93,15 +136,20 @@ public class WorkingtimeItemProvider {
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        return hoursPerDay;
     }
 
-	private InputStream constructReaderFrom(File workingTimesFile) throws FileNotFoundException {
-		if(workingTimesFile.getName().equalsIgnoreCase("-")) {
+	private InputStream constructReaderFrom() throws FileNotFoundException {
+		if(isStandardInput()) {
 			return System.in;
 		}
 		return new FileInputStream(workingTimesFile);
 	}
 
+    private boolean isStandardInput() {
+        return workingTimesFile.getName().equalsIgnoreCase("-");
+    }
+
 	private WorkingtimeItem fromHours(String minHours, String maxHours) {
         Duration minDur = Duration.ofHours(Long.parseLong(minHours));
         Duration maxDur = Duration.ofHours(Long.parseLong(maxHours));
@@ -112,6 +160,10 @@ public class WorkingtimeItemProvider {
         return new WorkingtimeItem(duration, duration);
     }
 
+    public interface Listener {
+        void workingTimeChanged(LocalDate day);
+    }
+
 	/**
 	 *  
 	 */
@@ -14,7 +14,10 @@ import org.stt.persistence.ItemPersister;
 import org.stt.persistence.ItemReader;
 import org.stt.persistence.stt.STTItemPersister;
 import org.stt.persistence.stt.STTItemReader;
+import org.stt.query.DailyDurations;
 import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.DailyReportCache;
+import org.stt.reporting.OvertimeReportGenerator;
 import org.stt.reporting.WorkingtimeItemProvider;
 import org.stt.text.ItemCategorizer;
 import org.stt.text.WorktimeCategorizer;
@@ -71,13 +74,16 @@ public class MainTest {
         TimeTrackingItemQueries queries = new TimeTrackingItemQueries(readerProvider, Optional.empty());
         WorkingtimeItemProvider worktimeItemProvider = new WorkingtimeItemProvider(configRoot.getWorktime(), "");
         ItemCategorizer categorizer = new WorktimeCategorizer(configRoot.getWorktime());
-        ReportPrinter reportPrinter = new ReportPrinter(queries, configRoot.getCli(), worktimeItemProvider, categorizer);
+        DailyReportCache reportCache = new DailyReportCache(queries, Optional.empty(), configRoot.getReport());
+        DailyDurations dailyDurations = new DailyDurations(queries, categorizer, Optional.empty());
+        ReportPrinter reportPrinter = new ReportPrinter(queries, configRoot.getCli(), categorizer, reportCache,
+                new OvertimeReportGenerator(dailyDurations, worktimeItemProvider));
         ItemPersister persister = new STTItemPersister(sttReader, sttWriter);
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
         DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
         CommandFormatter commandFormatter = new CommandFormatter(new CommandTextParser(timeFormatter, dateTimeFormatter), dateTimeFormatter, timeFormatter);
         Activities activities = new Activities(persister, queries, Optional.empty());
-        sut = new Main(queries, reportPrinter, commandFormatter, activities);
+        sut = new Main(queries, reportPrinter, commandFormatter, activities, reportCache, dailyDurations);
     }
 
 	@Test
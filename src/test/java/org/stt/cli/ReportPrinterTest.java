@@ -6,9 +6,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.stt.ItemReaderTestHelper;
 import org.stt.config.CliConfig;
+import org.stt.config.ReportConfig;
 import org.stt.model.TimeTrackingItem;
 import org.stt.persistence.ItemReader;
+import org.stt.query.DailyDurations;
 import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.DailyReportCache;
+import org.stt.reporting.OvertimeReportGenerator;
 import org.stt.reporting.WorkingtimeItemProvider;
 import org.stt.text.ItemCategorizer;
 import org.stt.text.ItemCategorizer.ItemCategory;
@@ -57,8 +61,11 @@ public class ReportPrinterTest {
         readFrom = () -> itemReader;
         given(categorizer.getCategory(anyString())).willReturn(
                 ItemCategory.WORKTIME);
-        sut = new ReportPrinter(new TimeTrackingItemQueries(readFrom, Optional.empty()), configuration,
-                workingtimeItemProvider, categorizer);
+        TimeTrackingItemQueries queries = new TimeTrackingItemQueries(readFrom, Optional.empty());
+        DailyDurations dailyDurations = new DailyDurations(queries, categorizer, Optional.empty());
+        sut = new ReportPrinter(queries, configuration, categorizer,
+                new DailyReportCache(queries, Optional.empty(), new ReportConfig()),
+                new OvertimeReportGenerator(dailyDurations, workingtimeItemProvider));
     }
 
 	@Test
@@ -10,6 +10,7 @@ import org.stt.query.Criteria;
 import org.stt.query.TimeTrackingItemQueries;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -192,4 +193,27 @@ public class ActivitiesTest {
         verify(persister).persist(expected);
         verifyNoMoreInteractions(persister);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldChangeActivitiesOfExistingItemsInOneBatch() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first",
+                LocalDateTime.of(2000, 10, 10, 10, 9),
+                LocalDateTime.of(2000, 10, 10, 10, 10));
+        TimeTrackingItem second = new TimeTrackingItem("second",
+                LocalDateTime.of(2000, 10, 10, 10, 10));
+        TimeTrackingItem missing = new TimeTrackingItem("missing",
+                LocalDateTime.of(2000, 10, 11, 10, 10));
+
+        given(queries.queryItems(any(Criteria.class))).willReturn(Stream.of(first), Stream.of(second), Stream.empty());
+
+        // WHEN
+        sut.bulkChangeActivity(Arrays.asList(first, second, missing), "new");
+
+        // THEN
+        verify(persister).apply(new ItemPersister.Batch()
+                .replace(first, first.withActivity("new"))
+                .replace(second, second.withActivity("new")));
+        verifyNoMoreInteractions(persister);
+    }
+}
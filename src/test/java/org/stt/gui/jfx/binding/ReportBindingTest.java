@@ -12,8 +12,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.stt.model.TimeTrackingItem;
+import org.stt.config.ReportConfig;
 import org.stt.persistence.ItemReader;
 import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.DailyReportCache;
 import org.stt.reporting.SummingReportGenerator;
 
 import javax.inject.Provider;
@@ -42,8 +44,9 @@ public class ReportBindingTest {
 	@Before
 	public void setup() {
         readerProvider = () -> itemReader;
+        TimeTrackingItemQueries queries = new TimeTrackingItemQueries(readerProvider, Optional.empty());
         sut = new ReportBinding(reportStart, reportEnd,
-                new TimeTrackingItemQueries(readerProvider, Optional.empty()));
+                new DailyReportCache(queries, Optional.empty(), new ReportConfig()));
     }
 
 	@Test
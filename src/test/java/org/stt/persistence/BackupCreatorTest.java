@@ -18,7 +18,10 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 
@@ -49,7 +52,7 @@ public class BackupCreatorTest {
         backupConfig.setBackupRetentionCount(3);
         backupConfig.setBackupLocation(new PathSetting(currentTempFolder.getAbsolutePath()));
 
-        sut = new BackupCreator(backupConfig, currentSttFile, "");
+        sut = new BackupCreator(backupConfig, currentSttFile, "", Runnable::run);
     }
 
 	@Test
@@ -135,6 +138,36 @@ public class BackupCreatorTest {
 				FileUtils.contentEquals(currentSttFile, existingFile));
 	}
 
+	@Test
+	public void incrementalBackupShouldBeRestorable() throws IOException {
+		// GIVEN
+		backupConfig.setIncremental(true);
+
+		// WHEN
+		sut.start();
+
+		// THEN
+		IncrementalBackup backup = new IncrementalBackup(currentTempFolder, currentSttFile.getName());
+		Assert.assertThat(backup.getRestorePoints(), is(Collections.singletonList(LocalDate.now())));
+		Assert.assertThat(new String(backup.restore(LocalDate.now()), StandardCharsets.UTF_8),
+				is("blubb, just a test line"));
+	}
+
+	@Test
+	public void backupShouldNotBeQueuedIfNotDue() throws IOException {
+		// GIVEN
+		createNewFile(new File(currentTempFolder, currentSttFile.getName() + "-"
+				+ DateTimes.prettyPrintDate(LocalDate.now())));
+		List<Runnable> queued = new ArrayList<>();
+		sut = new BackupCreator(backupConfig, currentSttFile, "", queued::add);
+
+		// WHEN
+		sut.start();
+
+		// THEN
+		Assert.assertTrue(queued.isEmpty());
+	}
+
 	private void createNewFile(File toCreate) throws IOException {
 		Assert.assertTrue(
 				"could not create test file " + toCreate.getAbsolutePath(),
@@ -0,0 +1,71 @@
+package org.stt.persistence;
+
+import org.junit.Test;
+import org.stt.model.TimeTrackingItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ColumnarItemListTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    private ColumnarItemList sut = new ColumnarItemList();
+
+    @Test
+    public void shouldReturnEqualItems() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", START, START.plusHours(1));
+        TimeTrackingItem second = new TimeTrackingItem("second", START.plusHours(1));
+
+        // WHEN
+        sut.add(second);
+        sut.add(0, first);
+
+        // THEN
+        assertThat(sut, contains(first, second));
+    }
+
+    @Test
+    public void shouldKeepSubSecondPrecision() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", START, START.plusHours(1));
+        TimeTrackingItem precise = new TimeTrackingItem("precise", START.plusHours(1).plusNanos(5));
+
+        // WHEN
+        sut.add(first);
+        sut.add(precise);
+
+        // THEN
+        assertThat(sut, contains(first, precise));
+        assertThat(ItemLists.firstIndexStartingAtOrAfter(sut, START.plusHours(1)), is(1));
+        assertThat(ItemLists.firstIndexStartingAtOrAfter(sut, START.plusHours(1).plusNanos(6)), is(2));
+    }
+
+    @Test
+    public void shouldBehaveLikeArrayListForInsertsAndDeletes() {
+        // GIVEN
+        List<TimeTrackingItem> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TimeTrackingItem item = new TimeTrackingItem("item " + i % 7, START.plusMinutes(i * 10), START.plusMinutes(i * 10 + 10));
+            expected.add(item);
+            sut.add(item);
+        }
+
+        // WHEN
+        TimeTrackingItem covering = new TimeTrackingItem("covering", START.plusMinutes(55), START.plusMinutes(305));
+        ItemLists.insert(expected, covering);
+        ItemLists.insert(sut, covering);
+        ItemLists.delete(expected, expected.get(3));
+        ItemLists.delete(sut, sut.get(3));
+
+        // THEN
+        assertThat(sut, is(expected));
+        assertThat(ItemLists.firstIndexStartingAtOrAfter(sut, START.plusMinutes(300)),
+                is(ItemLists.firstIndexStartingAtOrAfter(expected, START.plusMinutes(300))));
+    }
+}
@@ -0,0 +1,97 @@
+package org.stt.persistence;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class IncrementalBackupTest {
+    private static final LocalDate DAY = LocalDate.of(2017, 5, 8);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File backupLocation;
+    private File sttFile;
+    private IncrementalBackup sut;
+
+    @Before
+    public void setup() throws IOException {
+        backupLocation = tempFolder.newFolder();
+        sttFile = tempFolder.newFile("activities");
+        sut = new IncrementalBackup(backupLocation, sttFile.getName());
+    }
+
+    @Test
+    public void shouldRestoreEachDay() throws IOException {
+        // GIVEN
+        String first = "2017-05-08_10:00:00 first\n";
+        String second = "2017-05-08_10:00:00 2017-05-08_11:00:00 first\n2017-05-08_11:00:00 second\n";
+        String third = "2017-05-08_10:00:00 2017-05-08_11:00:00 changed\n2017-05-08_11:00:00 second";
+
+        // WHEN
+        backup(first, DAY);
+        backup(second, DAY.plusDays(1));
+        backup(third, DAY.plusDays(3));
+
+        // THEN
+        assertThat(restored(DAY), is(first));
+        assertThat(restored(DAY.plusDays(1)), is(second));
+        assertThat(restored(DAY.plusDays(2)), is(second));
+        assertThat(restored(DAY.plusDays(3)), is(third));
+    }
+
+    @Test
+    public void shouldOnlyStoreChangedLinesInDelta() throws IOException {
+        // GIVEN
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("2017-05-08_10:00:00 2017-05-08_11:00:00 item ").append(i).append('\n');
+        }
+        backup(content.toString(), DAY);
+
+        // WHEN
+        backup(content + "2017-05-08_11:00:00 new\n", DAY.plusDays(1));
+
+        // THEN
+        File delta = new File(backupLocation, "activities-2017-05-09.delta.gz");
+        assertThat(delta.length(), lessThan(100L));
+        assertThat(restored(DAY.plusDays(1)), is(content + "2017-05-08_11:00:00 new\n"));
+    }
+
+    @Test
+    public void shouldTurnOldestRetainedDeltaIntoBase() throws IOException {
+        // GIVEN
+        backup("first\n", DAY);
+        backup("first\nsecond\n", DAY.plusDays(1));
+        backup("first\nsecond\nthird\n", DAY.plusDays(2));
+
+        // WHEN
+        sut.deleteAllButNewest(2);
+
+        // THEN
+        assertThat(sut.getRestorePoints(), is(Arrays.asList(DAY.plusDays(1), DAY.plusDays(2))));
+        assertThat(new File(backupLocation, "activities-2017-05-09.base.gz").exists(), is(true));
+        assertThat(restored(DAY.plusDays(1)), is("first\nsecond\n"));
+        assertThat(restored(DAY.plusDays(2)), is("first\nsecond\nthird\n"));
+    }
+
+    private void backup(String content, LocalDate day) throws IOException {
+        Files.write(sttFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        sut.backup(sttFile, day);
+    }
+
+    private String restored(LocalDate day) throws IOException {
+        return new String(sut.restore(day), StandardCharsets.UTF_8);
+    }
+}
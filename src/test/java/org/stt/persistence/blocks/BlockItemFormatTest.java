@@ -0,0 +1,136 @@
+package org.stt.persistence.blocks;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemPersister;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.ItemWriter;
+import org.stt.persistence.stt.AtomicFileReplacer;
+import org.stt.persistence.stt.STTFileLock;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BlockItemFormatTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadWrittenItems() throws IOException {
+        // GIVEN
+        File file = tempFolder.newFile();
+        List<TimeTrackingItem> items = givenItems(1000);
+        items.add(new TimeTrackingItem("ongoing äöü", START.plusDays(30)));
+
+        // WHEN
+        write(file, items, 100);
+
+        // THEN
+        assertThat(readAll(new BlockItemReader(new FileInputStream(file))), is(items));
+    }
+
+    @Test
+    public void shouldOnlyReadItemsStartingAtOrAfterGivenTime() throws IOException {
+        // GIVEN
+        File file = tempFolder.newFile();
+        List<TimeTrackingItem> items = givenItems(1000);
+        write(file, items, 100);
+
+        // WHEN
+        List<TimeTrackingItem> result = readAll(BlockItemReader.open(file, items.get(555).getStart().minusMinutes(1)));
+
+        // THEN
+        assertThat(result, is(items.subList(555, 1000)));
+    }
+
+    @Test
+    public void shouldReadNoItemsFromEmptyFile() throws IOException {
+        // GIVEN
+        File file = tempFolder.newFile();
+
+        // WHEN
+        List<TimeTrackingItem> result = readAll(new BlockItemReader(new FileInputStream(file)));
+
+        // THEN
+        assertThat(result, is(empty()));
+    }
+
+    @Test
+    public void shouldApplyBatch() throws IOException {
+        // GIVEN
+        File file = new File(tempFolder.getRoot(), "activities");
+        BlockItemPersister sut = new BlockItemPersister(file, new STTFileLock(file), new AtomicFileReplacer(file));
+        TimeTrackingItem first = new TimeTrackingItem("first", START, START.plusHours(1));
+        sut.persist(first);
+
+        // WHEN
+        TimeTrackingItem changed = first.withActivity("changed");
+        TimeTrackingItem second = new TimeTrackingItem("second", START.plusHours(1));
+        sut.apply(new ItemPersister.Batch().replace(first, changed).insert(second));
+
+        // THEN
+        assertThat(readAll(new BlockItemReader(new FileInputStream(file))), contains(changed, second));
+    }
+
+    @Test
+    public void shouldOnlyRewriteBlocksFromChangedItemOn() throws IOException {
+        // GIVEN
+        File file = new File(tempFolder.getRoot(), "activities");
+        List<TimeTrackingItem> items = givenItems(1000);
+        write(file, items, 100);
+        byte[] before = Files.readAllBytes(file.toPath());
+        int untouchedLength = (int) BlockItemReader.readBlockIndex(file).get(9)[0];
+        BlockItemPersister sut = new BlockItemPersister(file, new STTFileLock(file), new AtomicFileReplacer(file));
+
+        // WHEN
+        TimeTrackingItem inserted = new TimeTrackingItem("inserted", items.get(950).getStart().plusMinutes(5));
+        sut.persist(inserted);
+
+        // THEN
+        ItemLists.insert(items, inserted);
+        assertThat(readAll(new BlockItemReader(new FileInputStream(file))), is(items));
+        byte[] after = Files.readAllBytes(file.toPath());
+        assertThat(Arrays.copyOf(after, untouchedLength), is(Arrays.copyOf(before, untouchedLength)));
+    }
+
+    private List<TimeTrackingItem> givenItems(int count) {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = START.plusMinutes(i * 30L);
+            items.add(new TimeTrackingItem("activity " + i % 7, start, start.plusMinutes(20)));
+        }
+        return items;
+    }
+
+    private void write(File file, List<TimeTrackingItem> items, int blockSize) throws IOException {
+        try (ItemWriter out = new BlockItemWriter(new FileOutputStream(file), blockSize)) {
+            items.forEach(out::write);
+        }
+    }
+
+    private List<TimeTrackingItem> readAll(ItemReader in) {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        try (ItemReader toClose = in) {
+            Optional<TimeTrackingItem> item;
+            while ((item = toClose.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,122 @@
+package org.stt.persistence.h2;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemPersister;
+import org.stt.persistence.ItemReader;
+import org.stt.persistence.ItemWriter;
+import org.stt.persistence.stt.STTFileLock;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+public class H2ItemPersisterTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private H2Database database;
+    private H2ItemPersister sut;
+
+    @Before
+    public void setup() {
+        File file = new File(tempFolder.getRoot(), "activities");
+        database = new H2Database(file);
+        sut = new H2ItemPersister(database, new STTFileLock(file));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void shouldEndOngoingItemWhenInsertingNewOne() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("first", START));
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("second", START.plusHours(1)));
+
+        // THEN
+        assertThat(readAll(), contains(new TimeTrackingItem("first", START, START.plusHours(1)),
+                new TimeTrackingItem("second", START.plusHours(1))));
+    }
+
+    @Test
+    public void shouldSplitItemCoveringInsertedItem() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("outer", START, START.plusHours(3)));
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("inner", START.plusHours(1), START.plusHours(2)));
+
+        // THEN
+        assertThat(readAll(), contains(new TimeTrackingItem("outer", START, START.plusHours(1)),
+                new TimeTrackingItem("inner", START.plusHours(1), START.plusHours(2)),
+                new TimeTrackingItem("outer", START.plusHours(2), START.plusHours(3))));
+    }
+
+    @Test
+    public void shouldReplaceItemWithoutDurationStartingTogetherWithInsertedItem() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("first", START, START));
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("second", START));
+
+        // THEN
+        assertThat(readAll(), contains(new TimeTrackingItem("second", START)));
+    }
+
+    @Test
+    public void shouldApplyBatch() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", START, START.plusHours(1));
+        TimeTrackingItem second = new TimeTrackingItem("second", START.plusHours(1), START.plusHours(2));
+        sut.persist(first);
+        sut.persist(second);
+
+        // WHEN
+        sut.apply(new ItemPersister.Batch().replace(first, first.withActivity("renamed")).delete(second));
+
+        // THEN
+        assertThat(readAll(), contains(first.withActivity("renamed")));
+    }
+
+    @Test
+    public void shouldReplaceAllItemsWithWrittenItems() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("old", START));
+
+        // WHEN
+        try (ItemWriter writer = database.writer()) {
+            writer.write(new TimeTrackingItem("new", START.plusHours(1)));
+        }
+
+        // THEN
+        assertThat(readAll(), contains(new TimeTrackingItem("new", START.plusHours(1))));
+    }
+
+    private List<TimeTrackingItem> readAll() {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        try (ItemReader reader = database.reader()) {
+            Optional<TimeTrackingItem> item;
+            while ((item = reader.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,61 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AtomicFileReplacerTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File file;
+    private AtomicFileReplacer sut;
+
+    @Before
+    public void setup() throws IOException {
+        file = tempFolder.newFile();
+        Files.write(file.toPath(), "old content".getBytes(StandardCharsets.UTF_8));
+        sut = new AtomicFileReplacer(file);
+    }
+
+    @Test
+    public void shouldReplaceContentLargerThanBuffer() throws IOException {
+        // GIVEN
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("2017-05-08_10:00:00 äöü ").append(i).append('\n');
+        }
+
+        // WHEN
+        sut.replaceWith(content);
+
+        // THEN
+        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is(content.toString()));
+        assertThat(new File(file.getPath() + ".tmp").exists(), is(false));
+    }
+
+    @Test
+    public void shouldReplaceContentWhenWriterIsClosed() throws IOException {
+        // GIVEN
+        Writer writer = sut.writer();
+        writer.write("new content");
+
+        // WHEN
+        String contentBeforeClose = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        writer.close();
+
+        // THEN
+        assertThat(contentBeforeClose, is("old content"));
+        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is("new content"));
+    }
+}
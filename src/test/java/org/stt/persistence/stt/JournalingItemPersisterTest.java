@@ -0,0 +1,151 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.config.PersistenceConfig;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemPersister;
+import org.stt.persistence.ItemReader;
+
+import javax.inject.Provider;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JournalingItemPersisterTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File sttFile;
+    private Provider<Reader> readerProvider;
+    private STTJournal journal;
+    private PersistenceConfig config = new PersistenceConfig();
+    private JournalingItemPersister sut;
+
+    @Before
+    public void setup() throws IOException {
+        sttFile = tempFolder.newFile();
+        readerProvider = () -> {
+            try {
+                return new InputStreamReader(new FileInputStream(sttFile), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        Provider<Writer> writerProvider = () -> {
+            try {
+                return new OutputStreamWriter(new FileOutputStream(sttFile), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        journal = new STTJournal(sttFile, readerProvider, writerProvider);
+        sut = new JournalingItemPersister(journal, config);
+    }
+
+    @Test
+    public void shouldNotTouchSttFileOnPersist() {
+        // GIVEN
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("test", START));
+
+        // THEN
+        assertThat(sttFile.length(), is(0L));
+        assertThat(readItems(), is(Collections.singletonList(new TimeTrackingItem("test", START))));
+    }
+
+    @Test
+    public void shouldApplyInsertDeleteAndReplace() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", START);
+        TimeTrackingItem second = new TimeTrackingItem("second", START.plusHours(1));
+        TimeTrackingItem endedSecond = second.withEnd(START.plusHours(2));
+
+        // WHEN
+        sut.persist(first);
+        sut.persist(second);
+        sut.replace(second, endedSecond);
+        sut.delete(first.withEnd(START.plusHours(1)));
+
+        // THEN
+        assertThat(readItems(), is(Collections.singletonList(endedSecond)));
+    }
+
+    @Test
+    public void shouldAppendAllChangesOfBatch() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", START, START.plusHours(1));
+        TimeTrackingItem second = new TimeTrackingItem("second", START.plusHours(1), START.plusHours(2));
+        sut.persist(first);
+        sut.persist(second);
+
+        // WHEN
+        sut.apply(new ItemPersister.Batch()
+                .replace(first, first.withActivity("new"))
+                .delete(second)
+                .insert(new TimeTrackingItem("third", START.plusHours(3))));
+
+        // THEN
+        assertThat(sttFile.length(), is(0L));
+        assertThat(readItems(), is(Arrays.asList(first.withActivity("new"),
+                new TimeTrackingItem("third", START.plusHours(3)))));
+    }
+
+    @Test
+    public void shouldCompactWhenThresholdIsReached() throws IOException {
+        // GIVEN
+        config.setJournalCompactionThreshold(2);
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("first", START));
+        sut.persist(new TimeTrackingItem("second", START.plusHours(1)));
+        journal.awaitCompaction();
+
+        // THEN
+        List<String> lines = Files.readAllLines(sttFile.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines, contains("2017-05-08_10:00:00 2017-05-08_11:00:00 first", "2017-05-08_11:00:00 second"));
+        assertThat(new File(sttFile.getPath() + ".journal").exists(), is(false));
+    }
+
+    @Test
+    public void shouldIgnoreTornReplaceRecord() throws IOException {
+        // GIVEN
+        TimeTrackingItem item = new TimeTrackingItem("test", START);
+        sut.persist(item);
+        Files.write(new File(sttFile.getPath() + ".journal").toPath(),
+                "~ 2017-05-08_10:00:00 test\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        // WHEN
+        List<TimeTrackingItem> items = readItems();
+
+        // THEN
+        assertThat(items, is(Collections.singletonList(item)));
+    }
+
+    private List<TimeTrackingItem> readItems() {
+        List<TimeTrackingItem> result = new ArrayList<>();
+        try (ItemReader in = journal.replayOnto(new STTItemReader(readerProvider.get()))) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                result.add(item.get());
+            }
+        }
+        return result;
+    }
+}
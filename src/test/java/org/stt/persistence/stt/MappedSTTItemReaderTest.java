@@ -0,0 +1,141 @@
+package org.stt.persistence.stt;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class MappedSTTItemReaderTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadSameItemsAsSTTItemReader() throws IOException {
+        // GIVEN
+        String content = "2017-05-08_09:00:00 2017-05-08_10:00:00 first\r\n"
+                + "   \n"
+                + "2017-05-08_10:00:00 2017-05-08_11:00:00 äöü \\\\ line\\nbreak\n"
+                + "2017-05-08_11:00:00 2017-05-08_12:00:00\n"
+                + "2017-05-08_12:00:00 last\\";
+        File sttFile = givenFileContaining(content);
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(new MappedSTTItemReader(sttFile));
+
+        // THEN
+        assertThat(items, is(readAll(new STTItemReader(new StringReader(content)))));
+        assertThat(items.get(1).getActivity(), is("äöü \\ line\nbreak"));
+    }
+
+    @Test
+    public void shouldReadOngoingItem() throws IOException {
+        // GIVEN
+        File sttFile = givenFileContaining("2017-05-08_10:00:00 ongoing\n");
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(new MappedSTTItemReader(sttFile));
+
+        // THEN
+        assertThat(items, contains(new TimeTrackingItem("ongoing", START)));
+    }
+
+    @Test
+    public void shouldShareEqualActivities() throws IOException {
+        // GIVEN
+        File sttFile = givenFileContaining("2017-05-08_09:00:00 2017-05-08_10:00:00 meeting\n"
+                + "2017-05-08_10:00:00 2017-05-08_11:00:00 other\n"
+                + "2017-05-08_11:00:00 meeting\n");
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(new MappedSTTItemReader(sttFile));
+
+        // THEN
+        assertThat(items.get(2).getActivity(), sameInstance(items.get(0).getActivity()));
+    }
+
+    @Test
+    public void shouldReadEmptyFile() throws IOException {
+        // GIVEN
+        File sttFile = tempFolder.newFile();
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(new MappedSTTItemReader(sttFile));
+
+        // THEN
+        assertThat(items.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldReadSameItemsWhenParsingInParallel() throws IOException {
+        // GIVEN
+        StringBuilder content = new StringBuilder();
+        STTItemConverter converter = new STTItemConverter();
+        for (int i = 0; i < 100000; i++) {
+            content.append(converter.timeTrackingItemToLine(
+                    new TimeTrackingItem("item\n" + i, START.plusMinutes(i), START.plusMinutes(i + 1))))
+                    .append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        File sttFile = givenFileContaining(content.toString());
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(new MappedSTTItemReader(sttFile, 0));
+
+        // THEN
+        assertThat(items, is(readAll(new MappedSTTItemReader(sttFile))));
+        assertThat(items.size(), is(100000));
+    }
+
+    @Test
+    public void shouldShareEqualActivitiesAcrossChunksWhenParsingInParallel() throws IOException {
+        // GIVEN
+        StringBuilder content = new StringBuilder();
+        STTItemConverter converter = new STTItemConverter();
+        for (int i = 0; i < 100000; i++) {
+            content.append(converter.timeTrackingItemToLine(
+                    new TimeTrackingItem("item " + i % 10, START.plusMinutes(i), START.plusMinutes(i + 1))))
+                    .append('\n');
+        }
+        File sttFile = givenFileContaining(content.toString());
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(new MappedSTTItemReader(sttFile, 0));
+
+        // THEN
+        assertThat(items.get(99990).getActivity(), sameInstance(items.get(0).getActivity()));
+    }
+
+    private File givenFileContaining(String content) throws IOException {
+        File sttFile = tempFolder.newFile();
+        Files.write(sttFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return sttFile;
+    }
+
+    private List<TimeTrackingItem> readAll(ItemReader reader) {
+        List<TimeTrackingItem> result = new ArrayList<>();
+        try (ItemReader in = reader) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                result.add(item.get());
+            }
+        }
+        return result;
+    }
+}
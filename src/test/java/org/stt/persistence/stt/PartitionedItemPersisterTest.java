@@ -0,0 +1,150 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.config.PersistenceConfig;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PartitionedItemPersisterTest {
+    private static final LocalDateTime MAY = LocalDateTime.of(2017, 5, 1, 0, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File sttFile;
+    private STTPartitions partitions;
+    private PartitionedItemPersister sut;
+
+    @Before
+    public void setup() throws IOException {
+        sttFile = tempFolder.newFile("activities");
+        PersistenceConfig config = new PersistenceConfig();
+        config.setPartitioning("month");
+        STTFileLock fileLock = new STTFileLock(sttFile);
+        partitions = new STTPartitions(sttFile, fileLock, config);
+        sut = new PartitionedItemPersister(partitions, fileLock);
+    }
+
+    @Test
+    public void shouldSplitExistingFileIntoPartitions() throws IOException {
+        // GIVEN
+        Files.write(sttFile.toPath(), ("2017-04-30_23:00:00 2017-05-01_01:00:00 april\n"
+                + "2017-05-02_10:00:00 may\n").getBytes(StandardCharsets.UTF_8));
+
+        // WHEN
+        partitions.migrateIfNeeded();
+
+        // THEN
+        assertThat(partitions.keys(), contains("2017-04", "2017-05"));
+        assertThat(sttFile.length(), is(0L));
+        assertThat(readAll(), contains(new TimeTrackingItem("april", MAY.minusHours(1), MAY.plusHours(1)),
+                new TimeTrackingItem("may", MAY.plusDays(1).plusHours(10))));
+    }
+
+    @Test
+    public void shouldMergePartitionsBackWithoutPartitioning() throws IOException {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("april", MAY.minusHours(1), MAY.plusHours(1)));
+        sut.persist(new TimeTrackingItem("may", MAY.plusDays(1)));
+        PersistenceConfig config = new PersistenceConfig();
+        config.setPartitioning("none");
+
+        // WHEN
+        new STTPartitions(sttFile, new STTFileLock(sttFile), config).migrateIfNeeded();
+
+        // THEN
+        assertThat(Files.readAllLines(sttFile.toPath(), StandardCharsets.UTF_8),
+                contains("2017-04-30_23:00:00 2017-05-01_01:00:00 april", "2017-05-02_00:00:00 may"));
+        assertThat(partitions.keys(), is(empty()));
+    }
+
+    @Test
+    public void shouldSplitPartitionsOfOtherPartitioningAnew() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("april", MAY.minusHours(1), MAY.plusHours(1)));
+        sut.persist(new TimeTrackingItem("may", MAY.plusDays(1)));
+        PersistenceConfig config = new PersistenceConfig();
+        config.setPartitioning("year");
+        partitions = new STTPartitions(sttFile, new STTFileLock(sttFile), config);
+
+        // WHEN
+        partitions.migrateIfNeeded();
+
+        // THEN
+        assertThat(partitions.keys(), contains("2017"));
+        assertThat(readAll(), contains(new TimeTrackingItem("april", MAY.minusHours(1), MAY.plusHours(1)),
+                new TimeTrackingItem("may", MAY.plusDays(1))));
+    }
+
+    @Test
+    public void shouldAdjustItemOfPreviousPartition() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("april", MAY.minusHours(1)));
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("may", MAY.plusHours(1)));
+
+        // THEN
+        assertThat(partitions.keys(), contains("2017-04", "2017-05"));
+        assertThat(readAll(), contains(new TimeTrackingItem("april", MAY.minusHours(1), MAY.plusHours(1)),
+                new TimeTrackingItem("may", MAY.plusHours(1))));
+    }
+
+    @Test
+    public void shouldNotRewriteUnaffectedPartitions() {
+        // GIVEN
+        sut.persist(new TimeTrackingItem("april", MAY.minusDays(1), MAY.minusDays(1).plusHours(1)));
+        sut.persist(new TimeTrackingItem("june", MAY.plusMonths(1), MAY.plusMonths(1).plusHours(1)));
+        File june = partitions.fileOf("2017-06");
+        june.setLastModified(0);
+
+        // WHEN
+        sut.persist(new TimeTrackingItem("may", MAY.plusDays(1), MAY.plusDays(1).plusHours(1)));
+
+        // THEN
+        assertThat(june.lastModified(), is(0L));
+        assertThat(partitions.keys(), contains("2017-04", "2017-05", "2017-06"));
+    }
+
+    @Test
+    public void shouldDeleteEmptyPartitions() {
+        // GIVEN
+        TimeTrackingItem april = new TimeTrackingItem("april", MAY.minusDays(1), MAY.minusDays(1).plusHours(1));
+        sut.persist(april);
+        sut.persist(new TimeTrackingItem("june", MAY.plusMonths(1)));
+
+        // WHEN
+        sut.delete(april);
+
+        // THEN
+        assertThat(partitions.keys(), contains("2017-06"));
+    }
+
+    private List<TimeTrackingItem> readAll() {
+        List<TimeTrackingItem> items = new ArrayList<>();
+        try (ItemReader reader = partitions.reader()) {
+            Optional<TimeTrackingItem> item;
+            while ((item = reader.read()).isPresent()) {
+                items.add(item.get());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,85 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.config.PersistenceConfig;
+import org.stt.model.TimeTrackingItem;
+
+import javax.inject.Provider;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class STTBackupSourceTest {
+    private static final LocalDateTime MAY = LocalDateTime.of(2017, 5, 1, 0, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File sttFile;
+    private PersistenceConfig config = new PersistenceConfig();
+    private STTFileLock fileLock;
+    private STTJournal journal;
+    private STTBackupSource sut;
+
+    @Before
+    public void setup() throws IOException {
+        sttFile = tempFolder.newFile("activities");
+        fileLock = new STTFileLock(sttFile);
+        journal = new STTJournal(sttFile, fileLock, readerProvider(), writerProvider());
+        sut = new STTBackupSource(config, sttFile, fileLock, () -> new STTPartitions(sttFile, fileLock, config),
+                journal, () -> {
+                    throw new AssertionError("Database not used");
+                });
+    }
+
+    @Test
+    public void shouldContainItemsOfAllPartitions() throws IOException {
+        // GIVEN
+        config.setPartitioning("month");
+        PartitionedItemPersister persister = new PartitionedItemPersister(
+                new STTPartitions(sttFile, fileLock, config), fileLock);
+        persister.persist(new TimeTrackingItem("april", MAY.minusHours(1), MAY.plusHours(1)));
+        persister.persist(new TimeTrackingItem("may", MAY.plusDays(1)));
+
+        // WHEN
+        String content = new String(sut.content(), StandardCharsets.UTF_8);
+
+        // THEN
+        assertThat(content, is("2017-04-30_23:00:00 2017-05-01_01:00:00 april\n2017-05-02_00:00:00 may\n"));
+    }
+
+    @Test
+    public void shouldContainPendingJournalRecords() throws IOException {
+        // GIVEN
+        config.setJournaled(true);
+        Files.write(sttFile.toPath(), "2017-04-30_23:00:00 april\n".getBytes(StandardCharsets.UTF_8));
+        new JournalingItemPersister(journal, config).persist(new TimeTrackingItem("may", MAY.plusDays(1)));
+
+        // WHEN
+        String content = new String(sut.content(), StandardCharsets.UTF_8);
+
+        // THEN
+        assertThat(content, is("2017-04-30_23:00:00 2017-05-02_00:00:00 april\n2017-05-02_00:00:00 may\n"));
+    }
+
+    private Provider<Reader> readerProvider() {
+        return () -> {
+            try {
+                return new InputStreamReader(new FileInputStream(sttFile), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private Provider<Writer> writerProvider() {
+        return () -> new AtomicFileReplacer(sttFile).writer();
+    }
+}
@@ -0,0 +1,155 @@
+package org.stt.persistence.stt;
+
+import net.engio.mbassy.bus.MBassador;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.stt.config.PersistenceConfig;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemReplaced;
+import org.stt.model.ItemsChangedExternally;
+import org.stt.model.TimeTrackingItem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class STTFileWatcherTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Mock
+    private MBassador<Object> eventBus;
+
+    private File sttFile;
+    private STTFileLock fileLock;
+    private STTFileWatcher sut;
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        sttFile = tempFolder.newFile();
+        givenContent("2017-05-08_09:00:00 2017-05-08_10:00:00 first\n2017-05-08_10:00:00 second\n");
+        fileLock = new STTFileLock(sttFile);
+        PersistenceConfig config = new PersistenceConfig();
+        sut = watcher(config);
+        sut.start();
+    }
+
+    @After
+    public void tearDown() {
+        sut.stop();
+    }
+
+    @Test
+    public void shouldPublishAppendedItems() throws IOException {
+        // GIVEN
+        givenExternalChange("2017-05-08_09:00:00 2017-05-08_10:00:00 first\n"
+                + "2017-05-08_10:00:00 2017-05-08_11:00:00 second\n2017-05-08_11:00:00 third\n");
+
+        // WHEN
+        sut.checkForChanges();
+
+        // THEN
+        List<Object> events = publishedEvents(2);
+        ItemReplaced replaced = (ItemReplaced) events.get(0);
+        assertThat(replaced.beforeUpdate, is(new TimeTrackingItem("second", START)));
+        assertThat(replaced.afterUpdate, is(new TimeTrackingItem("second", START, START.plusHours(1))));
+        assertThat(((ItemInserted) events.get(1)).newItem, is(new TimeTrackingItem("third", START.plusHours(1))));
+    }
+
+    @Test
+    public void shouldPublishExternalChangeIfFileWasRewritten() throws IOException {
+        // GIVEN
+        givenExternalChange("2017-05-08_09:00:00 2017-05-08_10:00:00 changed\n2017-05-08_10:00:00 second\n"
+                + "2017-05-08_11:00:00 third\n");
+
+        // WHEN
+        sut.checkForChanges();
+
+        // THEN
+        assertThat(publishedEvents(1).get(0), instanceOf(ItemsChangedExternally.class));
+    }
+
+    @Test
+    public void shouldIgnoreOwnModifications() {
+        // GIVEN
+        STTItemPersister persister = new STTItemPersister(sttFile, fileLock, this::reader, this::writer);
+        persister.persist(new TimeTrackingItem("third", START.plusHours(1)));
+
+        // WHEN
+        sut.checkForChanges();
+
+        // THEN
+        verify(eventBus, after(500).never()).publish(any());
+    }
+
+    @Test
+    public void shouldPublishExternalChangeOfPartition() throws IOException {
+        // GIVEN
+        sut.stop();
+        PersistenceConfig config = new PersistenceConfig();
+        config.setPartitioning("month");
+        sut = watcher(config);
+        sut.start();
+        File partition = new File(sttFile.getPath() + "-2017-05");
+
+        // WHEN
+        Files.write(partition.toPath(), "2017-05-08_11:00:00 third\n".getBytes(StandardCharsets.UTF_8));
+        sut.checkForChanges();
+
+        // THEN
+        assertThat(publishedEvents(1).get(0), instanceOf(ItemsChangedExternally.class));
+    }
+
+    private STTFileWatcher watcher(PersistenceConfig config) {
+        STTStoreFiles storeFiles = new STTStoreFiles(config, sttFile,
+                () -> new STTPartitions(sttFile, fileLock, config));
+        return new STTFileWatcher(sttFile, storeFiles, fileLock, eventBus, Runnable::run, config);
+    }
+
+    private List<Object> publishedEvents(int expectedCount) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        // The watcher thread might have published the changes first
+        verify(eventBus, timeout(5000).times(expectedCount)).publish(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private Reader reader() {
+        try {
+            return new InputStreamReader(new FileInputStream(sttFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Writer writer() {
+        return new AtomicFileReplacer(sttFile).writer();
+    }
+
+    private void givenExternalChange(String content) throws IOException {
+        // Replaced at once, so the watcher thread doesn't see partial content
+        File tempFile = tempFolder.newFile();
+        Files.write(tempFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile.toPath(), sttFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void givenContent(String content) throws IOException {
+        Files.write(sttFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
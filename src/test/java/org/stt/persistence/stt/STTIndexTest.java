@@ -0,0 +1,152 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class STTIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File sttFile;
+    private File indexFile;
+    private STTIndex sut;
+
+    @Before
+    public void setup() throws IOException {
+        sttFile = tempFolder.newFile();
+        indexFile = new File(sttFile.getPath() + ".idx");
+        sut = new STTIndex(sttFile);
+    }
+
+    @Test
+    public void shouldWriteIndexAfterReadingAllItems() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_10:00:00 2017-05-08_11:00:00 first\n2017-05-08_11:00:00 second\n");
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(sut.reader(Long.MAX_VALUE));
+
+        // THEN
+        assertThat(indexFile.exists(), is(true));
+        assertThat(items, contains(new TimeTrackingItem("first", START, START.plusHours(1)),
+                new TimeTrackingItem("second", START.plusHours(1))));
+    }
+
+    @Test
+    public void shouldReadSameItemsFromIndex() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_10:00:00 2017-05-08_11:00:00 first\n2017-05-08_11:00:00 second\n");
+        List<TimeTrackingItem> parsedItems = readAll(sut.reader(Long.MAX_VALUE));
+        long indexModified = indexFile.lastModified();
+
+        // WHEN
+        List<TimeTrackingItem> indexedItems = readAll(sut.reader(Long.MAX_VALUE));
+
+        // THEN
+        assertThat(indexedItems, is(parsedItems));
+        assertThat(indexFile.lastModified(), is(indexModified));
+    }
+
+    @Test
+    public void shouldIgnoreStaleIndex() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_10:00:00 first\n");
+        readAll(sut.reader(Long.MAX_VALUE));
+        Files.write(sttFile.toPath(), "2017-05-08_11:00:00 second\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(sut.reader(Long.MAX_VALUE));
+
+        // THEN
+        assertThat(items, contains(new TimeTrackingItem("first", START),
+                new TimeTrackingItem("second", START.plusHours(1))));
+    }
+
+    @Test
+    public void shouldIgnoreCorruptIndex() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_10:00:00 first\n");
+        Files.write(indexFile.toPath(), new byte[]{1, 2, 3});
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(sut.reader(Long.MAX_VALUE));
+
+        // THEN
+        assertThat(items, contains(new TimeTrackingItem("first", START)));
+    }
+
+    @Test
+    public void shouldIgnoreTruncatedIndex() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_10:00:00 2017-05-08_11:00:00 first\n2017-05-08_11:00:00 second\n");
+        readAll(sut.reader(Long.MAX_VALUE));
+        byte[] index = Files.readAllBytes(indexFile.toPath());
+        Files.write(indexFile.toPath(), Arrays.copyOf(index, index.length - 20));
+
+        // WHEN
+        List<TimeTrackingItem> items = readAll(sut.reader(Long.MAX_VALUE));
+
+        // THEN
+        assertThat(items, contains(new TimeTrackingItem("first", START, START.plusHours(1)),
+                new TimeTrackingItem("second", START.plusHours(1))));
+    }
+
+    @Test
+    public void shouldBeUpdatedByInsertNearEndOfFile() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_10:00:00 first\n");
+        readAll(sut.reader(Long.MAX_VALUE));
+        STTItemPersister persister = new STTItemPersister(sttFile, new STTFileLock(sttFile),
+                new AtomicFileReplacer(sttFile), sut, () -> {
+            throw new AssertionError("File should not be read completely");
+        }, () -> {
+            throw new AssertionError("File should not be rewritten completely");
+        });
+
+        // WHEN
+        persister.persist(new TimeTrackingItem("second", START.plusHours(1)));
+
+        // THEN
+        assertThat(sut.snapshot().isPresent(), is(true));
+        assertThat(readAll(sut.reader(Long.MAX_VALUE)),
+                contains(new TimeTrackingItem("first", START, START.plusHours(1)),
+                        new TimeTrackingItem("second", START.plusHours(1))));
+    }
+
+    private void givenContent(String content) throws IOException {
+        Files.write(sttFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<TimeTrackingItem> readAll(ItemReader reader) {
+        List<TimeTrackingItem> result = new ArrayList<>();
+        try (ItemReader in = reader) {
+            Optional<TimeTrackingItem> item;
+            while ((item = in.read()).isPresent()) {
+                result.add(item.get());
+            }
+        }
+        return result;
+    }
+}
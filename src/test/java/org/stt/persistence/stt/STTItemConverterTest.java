@@ -6,6 +6,7 @@ import org.stt.model.TimeTrackingItem;
 import java.time.LocalDateTime;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -103,5 +104,16 @@ public class STTItemConverterTest {
         assertThat(line, is("2019-01-10_10:11:12 \\\\n"));
     }
 
+    @Test
+    public void shouldShareEqualActivities() {
+        // GIVEN
+        String lineToTest = "2017-05-08_18:15:49 2017-05-08_19:00:00 Some Activity";
 
-}
\ No newline at end of file
+        // WHEN
+        TimeTrackingItem first = sut.lineToTimeTrackingItem(lineToTest);
+        TimeTrackingItem second = sut.lineToTimeTrackingItem(lineToTest);
+
+        // THEN
+        assertThat(second.getActivity(), sameInstance(first.getActivity()));
+    }
+}
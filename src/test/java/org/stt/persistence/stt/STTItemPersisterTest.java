@@ -0,0 +1,59 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemPersister;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class STTItemPersisterTest {
+    private static final String LINE_SEPERATOR = System.lineSeparator();
+
+    private StringWriter stringWriter;
+    private STTItemPersister sut;
+
+    @Before
+    public void setUp() {
+        stringWriter = new StringWriter();
+
+        sut = new STTItemPersister(() -> new StringReader(stringWriter.toString()), () -> stringWriter = new StringWriter());
+    }
+
+    @Test
+    public void shouldApplyBatchInOneRewrite() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first",
+                LocalDateTime.of(2010, 10, 10, 11, 12, 13), LocalDateTime.of(2010, 10,
+                10, 11, 14, 13));
+        TimeTrackingItem second = new TimeTrackingItem("second",
+                LocalDateTime.of(2010, 10, 10, 11, 14, 13), LocalDateTime.of(2010, 10,
+                10, 11, 16, 13));
+        sut.persist(first);
+        sut.persist(second);
+
+        // WHEN
+        sut.apply(new ItemPersister.Batch()
+                .replace(first, first.withActivity("new first"))
+                .replace(second, second.withActivity("new second"))
+                .insert(new TimeTrackingItem("third", LocalDateTime.of(2010, 10, 10, 11, 15, 13))));
+
+        // THEN
+        assertThatFileMatches("2010-10-10_11:12:13 2010-10-10_11:14:13 new first",
+                "2010-10-10_11:14:13 2010-10-10_11:15:13 new second",
+                "2010-10-10_11:15:13 third");
+    }
+
+    private void assertThatFileMatches(String... lines) {
+        StringBuilder expectedText = new StringBuilder();
+        for (String line : lines) {
+            expectedText.append(line).append(LINE_SEPERATOR);
+        }
+        assertThat(stringWriter.toString(), is(expectedText.toString()));
+    }
+}
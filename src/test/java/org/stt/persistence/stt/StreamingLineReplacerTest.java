@@ -0,0 +1,74 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StreamingLineReplacerTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File sttFile;
+    private StreamingLineReplacer sut;
+
+    @Before
+    public void setup() throws IOException {
+        sttFile = tempFolder.newFile();
+        sut = new StreamingLineReplacer(sttFile, new AtomicFileReplacer(sttFile));
+    }
+
+    @Test
+    public void shouldReplaceAndDeleteLinesKeepingAllOthersAsIs() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_09:00:00 2017-05-08_10:00:00 first\r\n"
+                + "2017-05-08_10:00:00 2017-05-08_11:00:00 second\n"
+                + "2017-05-08_11:00:00 2017-05-08_12:00:00 third\r\n"
+                + "2017-05-08_12:00:00 fourth");
+        sut.replace("2017-05-08_10:00:00 2017-05-08_11:00:00 second", null);
+        sut.replace("2017-05-08_11:00:00 2017-05-08_12:00:00 third", "2017-05-08_11:00:00 2017-05-08_12:00:00 3rd");
+        sut.replace("2017-05-08_12:00:00 fourth", "2017-05-08_12:00:00 4th");
+
+        // WHEN
+        List<String> notFound = sut.rewrite();
+
+        // THEN
+        assertThat(notFound, is(empty()));
+        assertThat(content(), is("2017-05-08_09:00:00 2017-05-08_10:00:00 first\r\n"
+                + "2017-05-08_11:00:00 2017-05-08_12:00:00 3rd\r\n"
+                + "2017-05-08_12:00:00 4th"));
+    }
+
+    @Test
+    public void shouldReturnLinesNotFound() throws IOException {
+        // GIVEN
+        givenContent("2017-05-08_09:00:00 2017-05-08_10:00:00 first\n");
+        sut.replace("2017-05-08_09:00:00 2017-05-08_10:00:00 other", null);
+
+        // WHEN
+        List<String> notFound = sut.rewrite();
+
+        // THEN
+        assertThat(notFound, contains("2017-05-08_09:00:00 2017-05-08_10:00:00 other"));
+        assertThat(content(), is("2017-05-08_09:00:00 2017-05-08_10:00:00 first\n"));
+    }
+
+    private void givenContent(String content) throws IOException {
+        Files.write(sttFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String content() throws IOException {
+        return new String(Files.readAllBytes(sttFile.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+package org.stt.persistence.stt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stt.model.TimeTrackingItem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TailInsertHelperTest {
+    private static final LocalDateTime START = LocalDateTime.of(2017, 5, 8, 10, 0, 0);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File sttFile;
+
+    @Before
+    public void setup() throws IOException {
+        sttFile = tempFolder.newFile();
+    }
+
+    @Test
+    public void shouldEndOngoingItemWhenAppending() throws IOException {
+        // GIVEN
+        givenLines("2017-05-08_09:00:00 2017-05-08_10:00:00 first",
+                "2017-05-08_10:00:00 second");
+
+        // WHEN
+        boolean performed = new TailInsertHelper(sttFile, null, new TimeTrackingItem("third", START.plusHours(1)))
+                .performInsert();
+
+        // THEN
+        assertThat(performed, is(true));
+        assertThat(lines(), contains("2017-05-08_09:00:00 2017-05-08_10:00:00 first",
+                "2017-05-08_10:00:00 2017-05-08_11:00:00 second",
+                "2017-05-08_11:00:00 third"));
+    }
+
+    @Test
+    public void shouldReplaceLastItem() throws IOException {
+        // GIVEN
+        givenLines("2017-05-08_09:00:00 2017-05-08_10:00:00 first",
+                "2017-05-08_10:00:00 second");
+        TimeTrackingItem ongoing = new TimeTrackingItem("second", START);
+
+        // WHEN
+        boolean performed = new TailInsertHelper(sttFile, ongoing, ongoing.withEnd(START.plusHours(1)))
+                .performInsert();
+
+        // THEN
+        assertThat(performed, is(true));
+        assertThat(lines(), contains("2017-05-08_09:00:00 2017-05-08_10:00:00 first",
+                "2017-05-08_10:00:00 2017-05-08_11:00:00 second"));
+    }
+
+    @Test
+    public void shouldHandleMissingLineBreakAtEndOfFile() throws IOException {
+        // GIVEN
+        Files.write(sttFile.toPath(), "2017-05-08_09:00:00 2017-05-08_10:00:00 first".getBytes(StandardCharsets.UTF_8));
+
+        // WHEN
+        new TailInsertHelper(sttFile, null, new TimeTrackingItem("second", START)).performInsert();
+
+        // THEN
+        assertThat(lines(), contains("2017-05-08_09:00:00 2017-05-08_10:00:00 first",
+                "2017-05-08_10:00:00 second"));
+    }
+
+    @Test
+    public void shouldGiveUpForInsertsDeepInHistory() throws IOException {
+        // GIVEN
+        try (PrintWriter out = new PrintWriter(sttFile, StandardCharsets.UTF_8.name())) {
+            STTItemConverter converter = new STTItemConverter();
+            for (int i = 0; i < 10000; i++) {
+                out.println(converter.timeTrackingItemToLine(
+                        new TimeTrackingItem("item " + i, START.plusHours(i), START.plusHours(i + 1))));
+            }
+        }
+        long lengthBefore = sttFile.length();
+
+        // WHEN
+        boolean performed = new TailInsertHelper(sttFile, null, new TimeTrackingItem("early", START, START.plusMinutes(5)))
+                .performInsert();
+
+        // THEN
+        assertThat(performed, is(false));
+        assertThat(sttFile.length(), is(lengthBefore));
+    }
+
+    private void givenLines(String... lines) throws IOException {
+        try (PrintWriter out = new PrintWriter(sttFile, StandardCharsets.UTF_8.name())) {
+            for (String line : lines) {
+                out.println(line);
+            }
+        }
+    }
+
+    private List<String> lines() throws IOException {
+        return Files.readAllLines(sttFile.toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+package org.stt.query;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.stt.ItemReaderTestHelper;
+import org.stt.model.ItemDeleted;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemModified;
+import org.stt.model.ItemReplaced;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemReader;
+import org.stt.text.ItemCategorizer;
+import org.stt.text.ItemCategorizer.ItemCategory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class DailyDurationsTest {
+    private static final LocalDate DAY = LocalDate.of(2017, 5, 8);
+    private static final LocalDateTime START = DAY.atTime(10, 0);
+
+    @Mock
+    private ItemReader reader;
+    private TimeTrackingItemQueries queries;
+    private DailyDurations sut;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        ItemCategorizer categorizer = activity -> activity.equals("pause") ? ItemCategory.BREAK : ItemCategory.WORKTIME;
+        queries = new TimeTrackingItemQueries(() -> reader, Optional.empty());
+        sut = new DailyDurations(queries, categorizer, Optional.empty());
+    }
+
+    @Test
+    public void shouldSumDurationsPerCategory() {
+        // GIVEN
+        givenReaderReturns(new TimeTrackingItem("work", START, START.plusHours(2)),
+                new TimeTrackingItem("pause", START.plusHours(2), START.plusHours(3)),
+                new TimeTrackingItem("work", START.plusDays(1), START.plusDays(1).plusHours(1)));
+
+        // WHEN
+        Duration work = sut.getDuration(DAY, DAY.plusDays(1), ItemCategory.WORKTIME, START);
+        Duration pause = sut.getDuration(DAY, DAY.plusDays(2), ItemCategory.BREAK, START);
+
+        // THEN
+        assertThat(work, is(Duration.ofHours(2)));
+        assertThat(pause, is(Duration.ofHours(1)));
+    }
+
+    @Test
+    public void shouldAddElapsedTimeOfOngoingItem() {
+        // GIVEN
+        givenReaderReturns(new TimeTrackingItem("work", START, START.plusHours(1)),
+                new TimeTrackingItem("work", START.plusHours(1)));
+
+        // WHEN
+        Map<LocalDate, Duration> perDay = sut.getDurationsPerDay(ItemCategory.WORKTIME, START.plusHours(3));
+
+        // THEN
+        assertThat(perDay.get(DAY), is(Duration.ofHours(3)));
+    }
+
+    @Test
+    public void shouldUpdateOnModificationsWithoutRebuilding() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("work", START);
+        givenReaderReturns(first);
+        sut.getDuration(DAY, DAY.plusDays(1), ItemCategory.WORKTIME, START);
+
+        // WHEN
+        TimeTrackingItem pause = new TimeTrackingItem("pause", START.plusHours(1));
+        TimeTrackingItem endedFirst = first.withEnd(pause.getStart());
+        sourceChanged(new ItemReplaced(first, endedFirst));
+        sourceChanged(new ItemInserted(pause));
+        TimeTrackingItem endedPause = pause.withEnd(START.plusHours(2));
+        sourceChanged(new ItemReplaced(pause, endedPause));
+        sourceChanged(new ItemInserted(new TimeTrackingItem("work", START.plusHours(2), START.plusHours(4))));
+        sourceChanged(new ItemDeleted(endedPause));
+
+        // THEN
+        assertThat(sut.getDuration(DAY, DAY.plusDays(1), ItemCategory.WORKTIME, START), is(Duration.ofHours(3)));
+        assertThat(sut.getDuration(DAY, DAY.plusDays(1), ItemCategory.BREAK, START), is(Duration.ZERO));
+        verify(reader, times(2)).read();
+    }
+
+    private void sourceChanged(ItemModified event) {
+        queries.sourceChanged(event);
+        sut.sourceChanged(event);
+    }
+
+    private void givenReaderReturns(TimeTrackingItem... items) {
+        ItemReaderTestHelper.givenReaderReturns(reader, items);
+    }
+}
@@ -13,6 +13,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.stt.ItemReaderTestHelper;
+import org.stt.model.ItemDeleted;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemReplaced;
 import org.stt.model.TimeTrackingItem;
 import org.stt.persistence.ItemReader;
 import org.stt.time.Interval;
@@ -22,6 +25,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static java.time.temporal.ChronoUnit.SECONDS;
@@ -31,6 +35,8 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(Theories.class)
 public class TimeTrackingItemQueriesTest {
@@ -275,6 +281,21 @@ public class TimeTrackingItemQueriesTest {
     }
 
 
+    @Test
+    public void shouldReturnItemStartingAt() {
+        // GIVEN
+        givenReaderReturnsTrackingTimesForStartDates(new LocalDateTime[]{_100, _500, _1000, _1500});
+
+        Criteria criteria = new Criteria();
+        criteria.withStartsAt(_1000);
+
+        // WHEN
+        Collection<TimeTrackingItem> result = sut.queryItems(criteria).collect(toList());
+
+        // THEN
+        assertThat(mapItemToStartDateTime(result), Matchers.is(Arrays.asList(_1000)));
+    }
+
     private Collection<LocalDateTime> mapItemToStartDateTime(Collection<TimeTrackingItem> items) {
         return items.stream()
                 .map(TimeTrackingItem::getStart)
@@ -462,4 +483,51 @@ public class TimeTrackingItemQueriesTest {
         // THEN
         Assert.assertEquals("not to be filtered", read.map(TimeTrackingItem::getActivity).get());
     }
+
+    @Test
+    public void shouldPatchCacheOnInsertWithoutRereading() {
+        // GIVEN
+        TimeTrackingItem ongoing = new TimeTrackingItem("first", _100);
+        givenReaderReturns(ongoing);
+        sut.queryAllItems().collect(toList());
+
+        // WHEN
+        TimeTrackingItem newItem = new TimeTrackingItem("second", _500);
+        sut.sourceChanged(new ItemInserted(newItem));
+
+        // THEN
+        assertThat(sut.queryAllItems().collect(toList()), is(Arrays.asList(ongoing.withEnd(_500), newItem)));
+        verify(reader, times(2)).read();
+    }
+
+    @Test
+    public void shouldPatchCacheOnReplaceAndDelete() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", _100, _500);
+        TimeTrackingItem second = new TimeTrackingItem("second", _500);
+        givenReaderReturns(first, second);
+        sut.queryAllItems().collect(toList());
+
+        // WHEN
+        TimeTrackingItem endedSecond = second.withEnd(_800);
+        sut.sourceChanged(new ItemReplaced(second, endedSecond));
+        sut.sourceChanged(new ItemDeleted(first));
+
+        // THEN
+        assertThat(sut.queryAllItems().collect(toList()), is(Collections.singletonList(endedSecond)));
+    }
+
+    @Test
+    public void shouldNotReflectModificationsInStreamsQueriedBefore() {
+        // GIVEN
+        TimeTrackingItem first = new TimeTrackingItem("first", _100, _500);
+        givenReaderReturns(first);
+        Stream<TimeTrackingItem> items = sut.queryItems(new Criteria());
+
+        // WHEN
+        sut.sourceChanged(new ItemInserted(new TimeTrackingItem("second", _500)));
+
+        // THEN
+        assertThat(items.collect(toList()), is(Collections.singletonList(first)));
+    }
 }
@@ -0,0 +1,185 @@
+package org.stt.reporting;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.stt.config.ReportConfig;
+import org.stt.model.ItemDeleted;
+import org.stt.model.ItemInserted;
+import org.stt.model.ItemModified;
+import org.stt.model.TimeTrackingItem;
+import org.stt.persistence.ItemLists;
+import org.stt.persistence.ItemReader;
+import org.stt.query.Criteria;
+import org.stt.query.TimeTrackingItemQueries;
+import org.stt.reporting.SummingReportGenerator.Report;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class DailyReportCacheTest {
+    private static final LocalDate DAY = LocalDate.of(2017, 5, 1);
+
+    private final List<TimeTrackingItem> items = new ArrayList<>();
+    private final List<Criteria> queried = new ArrayList<>();
+    private TimeTrackingItemQueries queries;
+    private DailyReportCache sut;
+
+    @Before
+    public void setup() {
+        items.add(new TimeTrackingItem("first", DAY.atTime(10, 0), DAY.atTime(11, 0)));
+        items.add(new TimeTrackingItem("second", DAY.plusDays(1).atTime(10, 0), DAY.plusDays(1).atTime(11, 0)));
+        queries = new TimeTrackingItemQueries(() -> readerOf(items), Optional.empty()) {
+            @Override
+            public Stream<TimeTrackingItem> queryItems(Criteria criteria) {
+                queried.add(criteria);
+                return super.queryItems(criteria);
+            }
+        };
+        sut = new DailyReportCache(queries, Optional.empty(), new ReportConfig());
+    }
+
+    @Test
+    public void shouldNotQueryItemsOfRememberedDayAgain() {
+        // GIVEN
+        Report report = sut.reportOf(DAY);
+        queried.clear();
+
+        // WHEN
+        Report result = sut.reportOf(DAY);
+
+        // THEN
+        assertThat(queried, empty());
+        assertThat(result.getReportingItems(), is(report.getReportingItems()));
+    }
+
+    @Test
+    public void shouldOnlyRecomputeTouchedDays() {
+        // GIVEN
+        sut.reportOf(DAY);
+        sut.reportOf(DAY.plusDays(1));
+
+        // WHEN
+        modify(new ItemInserted(new TimeTrackingItem("third", DAY.plusDays(1).atTime(12, 0),
+                DAY.plusDays(1).atTime(13, 0))));
+        queried.clear();
+
+        // THEN
+        sut.reportOf(DAY);
+        assertThat(queried, empty());
+        assertThat(sut.reportOf(DAY.plusDays(1)).getReportingItems(), hasSize(2));
+        assertThat(queried, hasSize(1));
+    }
+
+    @Test
+    public void shouldRecomputeDayOfCutItem() {
+        // GIVEN
+        items.add(new TimeTrackingItem("long", DAY.plusDays(2).atTime(10, 0), DAY.plusDays(4).atTime(10, 0)));
+        sut.reportOf(DAY.plusDays(2));
+
+        // WHEN
+        modify(new ItemInserted(new TimeTrackingItem("third", DAY.plusDays(3).atTime(12, 0),
+                DAY.plusDays(3).atTime(13, 0))));
+
+        // THEN
+        assertThat(sut.reportOf(DAY.plusDays(2)).getEnd(), is(DAY.plusDays(3).atTime(12, 0)));
+    }
+
+    @Test
+    public void shouldUpdateTrackedDays() {
+        // GIVEN
+        assertThat(sut.isTrackedDay(DAY), is(true));
+        TimeTrackingItem itemOfDay = items.get(0);
+
+        // WHEN
+        modify(new ItemInserted(new TimeTrackingItem("third", DAY.plusDays(5).atTime(12, 0),
+                DAY.plusDays(5).atTime(13, 0))));
+        modify(new ItemDeleted(itemOfDay));
+
+        // THEN
+        assertThat(sut.isTrackedDay(DAY), is(false));
+        assertThat(sut.isTrackedDay(DAY.plusDays(1)), is(true));
+        assertThat(sut.isTrackedDay(DAY.plusDays(5)), is(true));
+    }
+
+    @Test
+    public void shouldComposeReportOfRangeFromMonthsWeeksAndDays() {
+        // GIVEN
+        items.clear();
+        LocalDateTime start = DAY.minusMonths(3).atTime(8, 0);
+        for (int i = 0; i < 500; i++) {
+            items.add(new TimeTrackingItem("item " + i % 7, start, start.plusHours(i % 5 + 1)));
+            start = start.plusHours(i % 5 + 1 + i % 4);
+        }
+        LocalDate from = DAY.minusMonths(2).minusDays(3);
+        LocalDate to = DAY.plusDays(10);
+        sut.reportOf(from.plusDays(20));
+
+        // WHEN
+        Report result = sut.reportBetween(from, to);
+
+        // THEN
+        Report expected = new SummingReportGenerator(items.stream()
+                .filter(item -> !item.getStart().isBefore(from.atStartOfDay())
+                        && item.getStart().isBefore(to.atStartOfDay()))).createReport();
+        assertThat(result.getReportingItems(), is(expected.getReportingItems()));
+        assertThat(result.getUncoveredDuration(), is(expected.getUncoveredDuration()));
+        assertThat(result.getStart(), is(expected.getStart()));
+        assertThat(result.getEnd(), is(expected.getEnd()));
+    }
+
+    @Test
+    public void shouldOnlyRememberConfiguredNumberOfMonths() {
+        // GIVEN
+        items.clear();
+        for (LocalDate day = DAY.minusMonths(1); day.isBefore(DAY.plusMonths(1)); day = day.plusDays(1)) {
+            items.add(new TimeTrackingItem("item", day.atTime(10, 0), day.atTime(11, 0)));
+        }
+        ReportConfig config = new ReportConfig();
+        config.setCachedReportDays(1);
+        sut = new DailyReportCache(queries, Optional.empty(), config);
+        sut.reportBetween(DAY, DAY.plusMonths(1));
+        sut.reportBetween(DAY.minusMonths(1), DAY);
+        queried.clear();
+
+        // WHEN
+        sut.reportBetween(DAY.minusMonths(1), DAY);
+        List<Criteria> queriedForRememberedMonth = new ArrayList<>(queried);
+        sut.reportBetween(DAY, DAY.plusMonths(1));
+
+        // THEN
+        assertThat(queriedForRememberedMonth, empty());
+        assertThat(queried, hasSize(31));
+    }
+
+    private void modify(ItemModified event) {
+        if (event instanceof ItemInserted) {
+            ItemLists.insert(items, ((ItemInserted) event).newItem);
+        } else {
+            ItemLists.delete(items, ((ItemDeleted) event).deletedItem);
+        }
+        queries.sourceChanged(event);
+        sut.itemModified(event);
+    }
+
+    private static ItemReader readerOf(List<TimeTrackingItem> items) {
+        Iterator<TimeTrackingItem> iterator = new ArrayList<>(items).iterator();
+        return new ItemReader() {
+            @Override
+            public Optional<TimeTrackingItem> read() {
+                return iterator.hasNext() ? Optional.of(iterator.next()) : Optional.empty();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -3,11 +3,14 @@ package org.stt.reporting;
 import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.stt.ItemReaderTestHelper;
+import org.stt.model.ItemInserted;
 import org.stt.model.TimeTrackingItem;
 import org.stt.persistence.ItemReader;
+import org.stt.query.DailyDurations;
 import org.stt.query.TimeTrackingItemQueries;
 import org.stt.reporting.WorkingtimeItemProvider.WorkingtimeItem;
 import org.stt.text.ItemCategorizer;
@@ -17,13 +20,16 @@ import javax.inject.Provider;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.verify;
 
 public class OvertimeReportGeneratorTest {
 
@@ -48,8 +54,8 @@ public class OvertimeReportGeneratorTest {
         itemReaderProvider = () -> reader;
         queries = new TimeTrackingItemQueries(itemReaderProvider, Optional.empty());
 
-        sut = new OvertimeReportGenerator(queries, categorizer,
-                workingtimeItemProvider);
+        DailyDurations dailyDurations = new DailyDurations(queries, categorizer, Optional.empty());
+        sut = new OvertimeReportGenerator(dailyDurations, workingtimeItemProvider);
 	}
 
 	@Test
@@ -140,4 +146,60 @@ public class OvertimeReportGeneratorTest {
 		assertThat(overtime.entrySet(), Matchers.hasSize(1));
         assertThat(overtime.values().iterator().next(), is(Duration.ofHours(-12L)));
     }
+
+	@Test
+	public void shouldOnlyUpdateOvertimeOfChangedDay() {
+		// GIVEN
+        LocalDateTime firstDay = LocalDateTime.of(2014, 1, 1, 8, 0, 0);
+        LocalDateTime secondDay = firstDay.plusDays(1);
+        ItemReaderTestHelper.givenReaderReturns(reader,
+                new TimeTrackingItem("working", firstDay, firstDay.plusHours(10)),
+                new TimeTrackingItem("working", secondDay, secondDay.plusHours(8)));
+        given(workingtimeItemProvider.getWorkingTimeFor(any(LocalDate.class))).willReturn(
+                new WorkingtimeItem(Duration.ofHours(8), Duration.ofHours(8)));
+        DailyDurations dailyDurations = new DailyDurations(queries, categorizer, Optional.empty());
+        sut = new OvertimeReportGenerator(dailyDurations, workingtimeItemProvider);
+        sut.getOverallOvertime();
+
+		// WHEN
+        ItemInserted event = new ItemInserted(new TimeTrackingItem("working", secondDay.plusHours(8),
+                secondDay.plusHours(9)));
+        queries.sourceChanged(event);
+        dailyDurations.sourceChanged(event);
+
+		// THEN
+        assertThat(sut.getOverallOvertimeUpTo(firstDay.toLocalDate()), is(Duration.ofHours(2)));
+        assertThat(sut.getOverallOvertime(), is(Duration.ofHours(3)));
+        assertThat(sut.getOvertime(secondDay.toLocalDate(), secondDay.toLocalDate()).get(secondDay.toLocalDate()),
+                is(Duration.ofHours(1)));
+    }
+
+	@Test
+	public void shouldUpdateOvertimeOfDayWithChangedWorkingTime() {
+		// GIVEN
+        LocalDateTime day = LocalDateTime.of(2014, 1, 1, 8, 0, 0);
+        ItemReaderTestHelper.givenReaderReturns(reader,
+                new TimeTrackingItem("working", day, day.plusHours(10)));
+        given(workingtimeItemProvider.getWorkingTimeFor(any(LocalDate.class))).willReturn(
+                new WorkingtimeItem(Duration.ofHours(8), Duration.ofHours(8)));
+        ArgumentCaptor<WorkingtimeItemProvider.Listener> listener =
+                ArgumentCaptor.forClass(WorkingtimeItemProvider.Listener.class);
+        DailyDurations dailyDurations = new DailyDurations(queries, categorizer, Optional.empty());
+        sut = new OvertimeReportGenerator(dailyDurations, workingtimeItemProvider);
+        verify(workingtimeItemProvider).addListener(listener.capture());
+        sut.getOverallOvertime();
+
+		// WHEN
+        given(workingtimeItemProvider.getWorkingTimeFor(day.toLocalDate())).willReturn(
+                new WorkingtimeItem(Duration.ofHours(9), Duration.ofHours(9)));
+        LocalDate absence = day.toLocalDate().plusDays(1);
+        given(workingtimeItemProvider.getOvertimeAbsences()).willReturn(
+                Collections.singletonMap(absence, new WorkingtimeItem(Duration.ofHours(-8), Duration.ofHours(-8))));
+        listener.getValue().workingTimeChanged(day.toLocalDate());
+        listener.getValue().workingTimeChanged(absence);
+
+		// THEN
+        assertThat(sut.getOverallOvertime(), is(Duration.ofHours(-7)));
+        assertThat(sut.getOvertime(absence, absence).get(absence), is(Duration.ofHours(-8)));
+    }
 }
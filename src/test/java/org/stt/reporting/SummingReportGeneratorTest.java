@@ -11,6 +11,7 @@ import org.stt.reporting.SummingReportGenerator.Report;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -113,4 +114,25 @@ public class SummingReportGeneratorTest {
 		Assert.assertThat(report.getStart(), is(startOfFirstItem));
 		Assert.assertThat(report.getEnd(), is(endOfLastItem));
 	}
+
+	@Test
+	public void parallelReportShouldEqualSequentialReport() {
+		// GIVEN
+		List<TimeTrackingItem> items = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2012, 12, 12, 14, 0, 0);
+		for (int i = 0; i < 10000; i++) {
+			items.add(new TimeTrackingItem("item " + i % 7, start, start.plusMinutes(i % 5 + 1)));
+			start = start.plusMinutes(i % 5 + 1 + i % 3);
+		}
+
+		// WHEN
+		Report sequential = new SummingReportGenerator(items.stream()).createReport();
+		Report parallel = new SummingReportGenerator(items.parallelStream()).createReport();
+
+		// THEN
+		assertThat(parallel.getReportingItems(), is(sequential.getReportingItems()));
+		assertThat(parallel.getUncoveredDuration(), is(sequential.getUncoveredDuration()));
+		assertThat(parallel.getStart(), is(sequential.getStart()));
+		assertThat(parallel.getEnd(), is(sequential.getEnd()));
+	}
 }
@@ -16,6 +16,10 @@ import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -23,6 +27,7 @@ import static org.junit.Assert.assertThat;
 public class WorkingtimeItemProviderTest {
 
 	private WorkingtimeItemProvider sut;
+    private File workingTimesFile;
 
     private WorktimeConfig configuration = new WorktimeConfig();
 
@@ -33,14 +38,14 @@ public class WorkingtimeItemProviderTest {
 	public void setUp() throws IOException {
 		MockitoAnnotations.initMocks(this);
 
-		File tempFile = tempFolder.newFile();
+		workingTimesFile = tempFolder.newFile();
 
 		// populate test file
-		FileUtils.write(tempFile,
+		FileUtils.write(workingTimesFile,
 				"2014-01-01 14\n2014-02-02 10 14", StandardCharsets.UTF_8);
 		// end populate
 
-        configuration.setWorkingTimesFile(new PathSetting(tempFile.getAbsolutePath()));
+        configuration.setWorkingTimesFile(new PathSetting(workingTimesFile.getAbsolutePath()));
 
         sut = new WorkingtimeItemProvider(configuration, "");
     }
@@ -99,4 +104,22 @@ public class WorkingtimeItemProviderTest {
         Duration max = Duration.ofHours(14);
         assertThat(new WorkingtimeItem(min, max), is(workingTimeFor));
 	}
+
+	@Test
+	public void shouldReloadModifiedFileAndReportChangedDays() throws IOException {
+		// GIVEN
+        List<LocalDate> changedDays = new ArrayList<>();
+        sut.addListener(changedDays::add);
+        FileUtils.write(workingTimesFile,
+                "2014-01-01 14\n2014-03-03 -8", StandardCharsets.UTF_8);
+        workingTimesFile.setLastModified(workingTimesFile.lastModified() + 2000);
+
+		// WHEN
+        sut.reloadIfModified();
+
+		// THEN
+        assertThat(changedDays, is(Arrays.asList(LocalDate.of(2014, 2, 2), LocalDate.of(2014, 3, 3))));
+        assertThat(sut.getWorkingTimeFor(LocalDate.of(2014, 2, 2)).getMin(), is(Duration.ZERO));
+        assertThat(sut.getOvertimeAbsences().keySet(), is(Collections.singleton(LocalDate.of(2014, 3, 3))));
+	}
 }